@@ -0,0 +1,64 @@
+package com.example.interviews;
+
+import com.example.broker.BrokerItems;
+import com.example.broker.RecordType;
+import com.example.broker.RequestRecord;
+import com.example.broker.ResultRecord;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The message-broker items through BrokerItems against building every AttributeValue inline (how MessageController
+ * and the worker did it before), plus decoding a RESULT. Compare gc.alloc.rate.norm between the pairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageItemBenchmark {
+
+    private final String messageId = UUID.randomUUID().toString();
+    private final RequestRecord request = new RequestRecord(messageId, "bench-owner", "12345", 1_700_000_000_000L);
+    private final Map<String, AttributeValue> resultItem = BrokerItems.encode(
+            new ResultRecord(messageId, "bench-owner", "9.42", null, 1_700_000_000_000L));
+
+    @Benchmark
+    public Map<String, AttributeValue> requestItem() {
+        return BrokerItems.encode(request);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> requestItemInline() {
+        return Map.of(
+                "MessageId", AttributeValue.builder().s(messageId).build(),
+                "RecordType", AttributeValue.builder().s("REQUEST").build(),
+                "ownerId", AttributeValue.builder().s(request.ownerId()).build(),
+                "payload", AttributeValue.builder().s(request.payload()).build(),
+                "createdAt", AttributeValue.builder().n(Long.toString(1_700_000_000_000L)).build()
+        );
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> key() {
+        return BrokerItems.key(messageId, RecordType.RESULT);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> keyInline() {
+        return Map.of(
+                "MessageId", AttributeValue.builder().s(messageId).build(),
+                "RecordType", AttributeValue.builder().s("RESULT").build()
+        );
+    }
+
+    @Benchmark
+    public ResultRecord decodeResult() {
+        return BrokerItems.decodeResult(resultItem);
+    }
+}
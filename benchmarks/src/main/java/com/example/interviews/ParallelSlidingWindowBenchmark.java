@@ -0,0 +1,48 @@
+package com.example.interviews;
+
+import com.example.interviews.window.SlidingWindow;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against fork/join maxSum on large series, and maxSum picking between them. Run with -t 1, the parallel
+ * version brings its own threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParallelSlidingWindowBenchmark {
+
+    @Param({"1000000", "10000000", "30000000"})
+    int size;
+
+    @Param({"100", "100000"})
+    int windowSize;
+
+    private long[] values;
+
+    @Setup
+    public void setup() {
+        values = ThreadLocalRandom.current().longs(size, -1_000, 1_000).toArray();
+    }
+
+    @Benchmark
+    public long sequential() {
+        return SlidingWindow.maxSumSequential(values, size, windowSize);
+    }
+
+    @Benchmark
+    public long parallel() {
+        return SlidingWindow.maxSumParallel(values, size, windowSize);
+    }
+
+    @Benchmark
+    public long automatic() {
+        return SlidingWindow.maxSum(values, size, windowSize);
+    }
+}
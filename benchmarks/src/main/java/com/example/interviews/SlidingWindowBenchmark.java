@@ -0,0 +1,77 @@
+package com.example.interviews;
+
+import com.example.interviews.controller.InterviewController;
+import com.example.interviews.window.LongSeries;
+import com.example.interviews.window.SeriesParser;
+import com.example.interviews.window.SlidingWindow;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/sliding-window minus the HTTP part (parsing the numbers parameter and the window), the window engine on
+ * its own, and decoding a POSTed body as text vs little-endian int32, across input sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlidingWindowBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private final InterviewController controller = new InterviewController();
+    private String numbers;
+    private LongSeries series;
+    private byte[] textBody;
+    private byte[] int32Body;
+    private int windowSize;
+
+    @Setup
+    public void setup() {
+        StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < size; i++) {
+            joiner.add(Integer.toString(ThreadLocalRandom.current().nextInt(-1_000, 1_000)));
+        }
+        numbers = joiner.toString();
+        series = SeriesParser.parseCsv(numbers);
+        textBody = numbers.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(size * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt((int) series.values()[i]);
+        }
+        int32Body = buffer.array();
+        windowSize = Math.max(1, size / 10);
+    }
+
+    @Benchmark
+    public Map<String, Object> maxSlidingWindowSum() {
+        return controller.getMaxSlidingWindowSum(numbers, windowSize, null);
+    }
+
+    @Benchmark
+    public long engineMaxSum() {
+        return SlidingWindow.maxSum(series.values(), series.size(), windowSize);
+    }
+
+    @Benchmark
+    public LongSeries decodeTextBody() throws IOException {
+        return SeriesParser.parseCsv(new ByteArrayInputStream(textBody));
+    }
+
+    @Benchmark
+    public LongSeries decodeInt32Body() throws IOException {
+        return SeriesParser.parseLittleEndian(new ByteArrayInputStream(int32Body), int32Body.length, Integer.BYTES);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.interviews;
+
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.example.interviews.priming.PrimingInterceptor;
+import com.example.interviews.priming.RequestPrimer;
+import com.example.interviews.priming.RequestPrimer.PrimingRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * handleRequest end to end, from the raw API Gateway event to the serialized response, with the AWS clients stubbed
+ * out by PrimingInterceptor (calls fail right before they would go on the wire).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamLambdaHandlerBenchmark {
+
+    @Param({"ping", "slidingWindow", "messageStatus"})
+    String route;
+
+    private StreamLambdaHandler handler;
+    private MockLambdaContext context;
+    private byte[] event;
+
+    @Setup
+    public void setup() {
+        stubEnvironment();
+        handler = new StreamLambdaHandler();
+        context = new MockLambdaContext();
+        event = event(switch (route) {
+            case "ping" -> new PrimingRequest("GET", "/ping", "", Map.of(), null);
+            case "slidingWindow" -> new PrimingRequest("GET", "/api/sliding-window",
+                    "numbers=5,1,8,3,9,2,7,4,6,0&windowSize=3", Map.of(), null);
+            // Cache miss, then DynamoDB reads that the stub fails: the SDK marshalling and error path
+            case "messageStatus" -> new PrimingRequest("GET", "/messages/bench-message", "",
+                    Map.of("X-Owner-Id", "bench-owner"), null);
+            default -> throw new IllegalArgumentException(route);
+        });
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream handleRequest() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrimingInterceptor.stubbed(() -> {
+            try {
+                handler.handleRequest(new ByteArrayInputStream(event), out, context);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return out;
+    }
+
+    /**
+     * The API Gateway event RequestPrimer would send for this request, caught on its way to the container
+     */
+    static byte[] event(PrimingRequest request) {
+        byte[][] captured = new byte[1][];
+        new RequestPrimer((event, response) -> captured[0] = event.readAllBytes(), 1).prime(List.of(request));
+        return captured[0];
+    }
+
+    /**
+     * Dummy credentials so signing doesn't go looking for real ones, and no priming calls during startup.
+     */
+    static void stubEnvironment() {
+        System.setProperty("aws.accessKeyId", "benchmark");
+        System.setProperty("aws.secretAccessKey", "benchmark");
+        System.setProperty("app.aws.prime-clients", "false");
+    }
+}
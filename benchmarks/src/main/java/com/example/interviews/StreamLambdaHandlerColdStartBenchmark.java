@@ -0,0 +1,39 @@
+package com.example.interviews;
+
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.example.interviews.priming.RequestPrimer.PrimingRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold path without SnapStart: a fresh JVM per fork, timing the Spring Boot startup in StreamLambdaHandler's static
+ * initializer plus the first GET /ping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StreamLambdaHandlerColdStartBenchmark {
+
+    private byte[] event;
+
+    @Setup
+    public void setup() {
+        StreamLambdaHandlerBenchmark.stubEnvironment();
+        event = StreamLambdaHandlerBenchmark.event(new PrimingRequest("GET", "/ping", "", Map.of(), null));
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream firstRequest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StreamLambdaHandler().handleRequest(new ByteArrayInputStream(event), out, new MockLambdaContext());
+        return out;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example;
+
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.kernel.KernelRegistry;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The worker on SQS batches of 1, 10 and 100 records: event parsing, the cancelled check, the calculation and
+ * handing the RESULT puts to the writer threads, against a DynamoDB client that accepts everything.
+ * <p>
+ * handleRequest starts from the Map the runtime would have built, handleRequestFromJson adds building it with
+ * Jackson (about what the runtime does for a RequestHandler), and handleStream is StreamFunctionConfiguration
+ * starting from the same JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FunctionConfigurationBenchmark {
+
+    @Param({"1", "10", "100"})
+    int batchSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FunctionConfiguration function;
+    private StreamFunctionConfiguration streamFunction;
+    private MockLambdaContext context;
+    private Map<String, Object> event;
+    private byte[] eventJson;
+
+    @Setup
+    public void setup() throws IOException {
+        // Every invocation replays the same MessageIds, so don't let the duplicate check skip them
+        function = new FunctionConfiguration(new AcceptingDynamo(), KernelRegistry.defaults(),
+                new ProcessedMessageIds(0));
+        streamFunction = new StreamFunctionConfiguration(function);
+        context = new MockLambdaContext();
+
+        List<Map<String, Object>> records = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put("MessageId", Map.of("stringValue", "message-" + i, "dataType", "String"));
+            attributes.put("OwnerId", Map.of("stringValue", "bench-owner", "dataType", "String"));
+            attributes.put("Payload", Map.of("stringValue", Integer.toString(i + 1), "dataType", "String"));
+
+            // Everything else SQS sends along, so the parsers have as much to skip as in production
+            Map<String, Object> record = new HashMap<>();
+            record.put("messageId", "sqs-" + i);
+            record.put("receiptHandle", "AQEB" + "x".repeat(300));
+            record.put("body", "message body " + i);
+            record.put("attributes", Map.of(
+                    "ApproximateReceiveCount", "1",
+                    "SentTimestamp", "1700000000000",
+                    "SenderId", "AIDAEXAMPLE",
+                    "ApproximateFirstReceiveTimestamp", "1700000000001"));
+            record.put("messageAttributes", attributes);
+            record.put("md5OfBody", "e4e68fb7bd0e697a0ae8f1bb342846b3");
+            record.put("md5OfMessageAttributes", "5e1d9cd3b2ab6a5b2a4c8f3e6d7c9b1a");
+            record.put("eventSource", "aws:sqs");
+            record.put("eventSourceARN", "arn:aws:sqs:us-east-2:123456789012:app-message-queue");
+            record.put("awsRegion", "us-east-2");
+            records.add(record);
+        }
+        event = Map.of("Records", records);
+        eventJson = objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public Object handleRequest() {
+        return function.handleRequest(event, context);
+    }
+
+    @Benchmark
+    public Object handleRequestFromJson() throws IOException {
+        return function.handleRequest(objectMapper.readValue(eventJson, Map.class), context);
+    }
+
+    @Benchmark
+    public int handleStream() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamFunction.handleRequest(new ByteArrayInputStream(eventJson), output, context);
+        return output.size();
+    }
+
+    private static class AcceptingDynamo implements DynamoDbClient {
+        @Override
+        public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+            return BatchGetItemResponse.builder()
+                    .responses(Collections.emptyMap())
+                    .unprocessedKeys(Collections.emptyMap())
+                    .build();
+        }
+
+        @Override
+        public PutItemResponse putItem(PutItemRequest request) {
+            return PutItemResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
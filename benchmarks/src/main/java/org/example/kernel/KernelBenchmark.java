@@ -0,0 +1,74 @@
+package org.example.kernel;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each worker kernel over one operation group of 1, 10 and 100 payloads, the way processBatch hands them over: one
+ * compute call on the whole group. logPerMessage is the old per-message Math.log path for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KernelBenchmark {
+
+    @Param({"1", "10", "100"})
+    int batchSize;
+
+    private final Kernel log = ScalarKernel.log();
+    private final Kernel stats = new StatsKernel();
+    private final Kernel slidingWindow = new SlidingWindowKernel();
+
+    private String[] numbers;
+    private String[] series;
+    private String[] windows;
+    private String[] results;
+
+    @Setup
+    public void setup() {
+        numbers = new String[batchSize];
+        series = new String[batchSize];
+        windows = new String[batchSize];
+        results = new String[batchSize];
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append(i == 0 ? "" : ",").append((i * 7919) % 1000 - 500);
+        }
+        for (int i = 0; i < batchSize; i++) {
+            numbers[i] = Integer.toString(i + 1);
+            series[i] = csv.toString();
+            windows[i] = "10:" + csv;
+        }
+    }
+
+    @Benchmark
+    public String[] log() {
+        log.compute(numbers, results, batchSize);
+        return results;
+    }
+
+    @Benchmark
+    public String[] logPerMessage() {
+        for (int i = 0; i < batchSize; i++) {
+            results[i] = String.valueOf(Math.log(Double.parseDouble(numbers[i])));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public String[] stats() {
+        stats.compute(series, results, batchSize);
+        return results;
+    }
+
+    @Benchmark
+    public String[] slidingWindow() {
+        slidingWindow.compute(windows, results, batchSize);
+        return results;
+    }
+}
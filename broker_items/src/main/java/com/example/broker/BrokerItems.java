@@ -0,0 +1,132 @@
+package com.example.broker;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Encodes and decodes the items of the message-broker table (hash key MessageId, range key RecordType), so the web
+ * API and the worker agree on one schema.
+ * <p>
+ * Items are immutable {@code Map.of} maps. The RecordType values are shared constants (see
+ * {@link RecordType#attributeValue()}), so encoding allocates only the per-message values. Decoding reads the
+ * attributes it needs by name, no reflection.
+ */
+public final class BrokerItems {
+
+    public static final String MESSAGE_ID = "MessageId";
+    public static final String RECORD_TYPE = "RecordType";
+    public static final String OWNER_ID = "ownerId";
+    public static final String PAYLOAD = "payload";
+    public static final String ERROR = "error";
+    public static final String CREATED_AT = "createdAt";
+    public static final String COMPLETED_AT = "completedAt";
+    public static final String CANCELLED_AT = "cancelledAt";
+
+    /**
+     * Condition for a write that only goes through while the item it names doesn't exist
+     */
+    public static final String NOT_EXISTS = "attribute_not_exists(" + MESSAGE_ID + ")";
+
+    private BrokerItems() {
+    }
+
+    public static Map<String, AttributeValue> key(String messageId, RecordType type) {
+        return Map.of(
+                MESSAGE_ID, string(messageId),
+                RECORD_TYPE, type.attributeValue()
+        );
+    }
+
+    public static Map<String, AttributeValue> encode(RequestRecord request) {
+        return Map.of(
+                MESSAGE_ID, string(request.messageId()),
+                RECORD_TYPE, RecordType.REQUEST.attributeValue(),
+                OWNER_ID, string(request.ownerId()),
+                PAYLOAD, string(request.payload()),
+                CREATED_AT, number(request.createdAt())
+        );
+    }
+
+    public static Map<String, AttributeValue> encode(ResultRecord result) {
+        if (result.error() != null) {
+            return Map.of(
+                    MESSAGE_ID, string(result.messageId()),
+                    RECORD_TYPE, RecordType.RESULT.attributeValue(),
+                    OWNER_ID, string(result.ownerId()),
+                    ERROR, string(result.error()),
+                    COMPLETED_AT, number(result.completedAt())
+            );
+        }
+        return Map.of(
+                MESSAGE_ID, string(result.messageId()),
+                RECORD_TYPE, RecordType.RESULT.attributeValue(),
+                OWNER_ID, string(result.ownerId()),
+                PAYLOAD, string(result.payload()),
+                COMPLETED_AT, number(result.completedAt())
+        );
+    }
+
+    public static Map<String, AttributeValue> encode(CancelledRecord cancelled) {
+        return Map.of(
+                MESSAGE_ID, string(cancelled.messageId()),
+                RECORD_TYPE, RecordType.CANCELLED.attributeValue(),
+                OWNER_ID, string(cancelled.ownerId()),
+                CANCELLED_AT, number(cancelled.cancelledAt())
+        );
+    }
+
+    public static RequestRecord decodeRequest(Map<String, AttributeValue> item) {
+        return new RequestRecord(
+                stringOf(item, MESSAGE_ID),
+                stringOf(item, OWNER_ID),
+                stringOf(item, PAYLOAD),
+                numberOf(item, CREATED_AT)
+        );
+    }
+
+    public static ResultRecord decodeResult(Map<String, AttributeValue> item) {
+        if (!item.containsKey(COMPLETED_AT)) {
+            throw new IllegalArgumentException("Missing completedAt in DynamoDB RESULT record");
+        }
+        return new ResultRecord(
+                stringOf(item, MESSAGE_ID),
+                stringOf(item, OWNER_ID),
+                stringOf(item, PAYLOAD),
+                stringOf(item, ERROR),
+                numberOf(item, COMPLETED_AT)
+        );
+    }
+
+    public static CancelledRecord decodeCancelled(Map<String, AttributeValue> item) {
+        return new CancelledRecord(
+                stringOf(item, MESSAGE_ID),
+                stringOf(item, OWNER_ID),
+                numberOf(item, CANCELLED_AT)
+        );
+    }
+
+    public static AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    public static AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    /**
+     * @return the S value, or null if the attribute is missing
+     */
+    public static String stringOf(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null ? null : value.s();
+    }
+
+    /**
+     * @return the N value, or 0 if the attribute is missing
+     */
+    public static long numberOf(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null || value.n() == null ? 0 : Long.parseLong(value.n());
+    }
+}
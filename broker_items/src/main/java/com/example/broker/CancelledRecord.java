@@ -0,0 +1,58 @@
+package com.example.broker;
+
+import java.util.Objects;
+
+/**
+ * A CANCELLED item: written by DELETE /messages/{id}.
+ */
+public final class CancelledRecord {
+    private final String messageId;
+    private final String ownerId;
+    private final long cancelledAt;
+
+    public CancelledRecord(String messageId, String ownerId, long cancelledAt) {
+        this.messageId = messageId;
+        this.ownerId = ownerId;
+        this.cancelledAt = cancelledAt;
+    }
+
+    public String messageId() {
+        return messageId;
+    }
+
+    public String ownerId() {
+        return ownerId;
+    }
+
+    /**
+     * Epoch millis
+     */
+    public long cancelledAt() {
+        return cancelledAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CancelledRecord)) {
+            return false;
+        }
+        CancelledRecord that = (CancelledRecord) o;
+        return cancelledAt == that.cancelledAt
+                && Objects.equals(messageId, that.messageId)
+                && Objects.equals(ownerId, that.ownerId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, ownerId, cancelledAt);
+    }
+
+    @Override
+    public String toString() {
+        return "CancelledRecord{messageId='" + messageId + "', ownerId='" + ownerId + "', cancelledAt=" + cancelledAt
+                + "}";
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.broker;
+
+/**
+ * What may go into a log line from a request, shared by the web API's and the worker's logs: payloads are cut
+ * short and owner ids masked, and an invocation is sampled in or out by its request id the same way everywhere.
+ */
+public final class LogValues {
+
+    public static final int MAX_PAYLOAD_CHARS = 64;
+
+    private LogValues() {
+    }
+
+    /**
+     * @return the value cut at MAX_PAYLOAD_CHARS, with how long it really was
+     */
+    public static String truncate(String value) {
+        if (value == null || value.length() <= MAX_PAYLOAD_CHARS) {
+            return value;
+        }
+        return value.substring(0, MAX_PAYLOAD_CHARS) + "... (" + value.length() + " chars, truncated)";
+    }
+
+    /**
+     * @return the first two characters, enough to tell callers apart when reading logs, and stars for the rest
+     */
+    public static String mask(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() <= 2 ? "***" : value.substring(0, 2) + "***";
+    }
+
+    /**
+     * The same id always gets the same answer, and an id sampled at one rate is also sampled at any higher rate.
+     *
+     * @return whether the invocation with this request id is in the sampled fraction (rate, 0 to 1); never for a
+     * null id below a rate of 1
+     */
+    public static boolean isSampled(String requestId, double rate) {
+        if (rate >= 1.0) {
+            return true;
+        }
+        if (rate <= 0 || requestId == null) {
+            return false;
+        }
+        // Spread the hash over [0, 1)
+        return (requestId.hashCode() & 0x7fffffff) / (double) Integer.MAX_VALUE < rate;
+    }
+}
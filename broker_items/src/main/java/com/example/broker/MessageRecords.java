@@ -0,0 +1,58 @@
+package com.example.broker;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything stored for one MessageId, sorted by RecordType in a single pass over the items read. Records that
+ * aren't there are null.
+ */
+public final class MessageRecords {
+    private final RequestRecord request;
+    private final ResultRecord result;
+    private final CancelledRecord cancelled;
+
+    public MessageRecords(RequestRecord request, ResultRecord result, CancelledRecord cancelled) {
+        this.request = request;
+        this.result = result;
+        this.cancelled = cancelled;
+    }
+
+    public static MessageRecords of(List<Map<String, AttributeValue>> items) {
+        RequestRecord request = null;
+        ResultRecord result = null;
+        CancelledRecord cancelled = null;
+        for (Map<String, AttributeValue> item : items) {
+            RecordType type = RecordType.of(item);
+            if (type == RecordType.REQUEST) {
+                request = BrokerItems.decodeRequest(item);
+            } else if (type == RecordType.RESULT) {
+                result = BrokerItems.decodeResult(item);
+            } else if (type == RecordType.CANCELLED) {
+                cancelled = BrokerItems.decodeCancelled(item);
+            }
+        }
+        return new MessageRecords(request, result, cancelled);
+    }
+
+    public RequestRecord request() {
+        return request;
+    }
+
+    public ResultRecord result() {
+        return result;
+    }
+
+    public CancelledRecord cancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return whether the message has a RESULT or was CANCELLED
+     */
+    public boolean isSettled() {
+        return result != null || cancelled != null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.broker;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * The sort key of the message-broker table. Each message has a REQUEST record, and later a RESULT or CANCELLED one.
+ */
+public enum RecordType {
+    REQUEST,
+    RESULT,
+    CANCELLED;
+
+    // AttributeValue is immutable, so one instance per type serves every item and every thread
+    private final AttributeValue attributeValue = AttributeValue.builder().s(name()).build();
+
+    public AttributeValue attributeValue() {
+        return attributeValue;
+    }
+
+    /**
+     * @return the item's type, or null if it has no RecordType or one this code doesn't know
+     */
+    public static RecordType of(Map<String, AttributeValue> item) {
+        AttributeValue value = item.get(BrokerItems.RECORD_TYPE);
+        if (value == null || value.s() == null) {
+            return null;
+        }
+        switch (value.s()) {
+            case "REQUEST":
+                return REQUEST;
+            case "RESULT":
+                return RESULT;
+            case "CANCELLED":
+                return CANCELLED;
+            default:
+                return null;
+        }
+    }
+}
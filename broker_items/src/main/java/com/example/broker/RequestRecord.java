@@ -0,0 +1,64 @@
+package com.example.broker;
+
+import java.util.Objects;
+
+/**
+ * A REQUEST item: written by POST /messages, read back to check the owner.
+ */
+public final class RequestRecord {
+    private final String messageId;
+    private final String ownerId;
+    private final String payload;
+    private final long createdAt;
+
+    public RequestRecord(String messageId, String ownerId, String payload, long createdAt) {
+        this.messageId = messageId;
+        this.ownerId = ownerId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public String messageId() {
+        return messageId;
+    }
+
+    public String ownerId() {
+        return ownerId;
+    }
+
+    public String payload() {
+        return payload;
+    }
+
+    /**
+     * Epoch millis, 0 for requests written before createdAt existed
+     */
+    public long createdAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RequestRecord)) {
+            return false;
+        }
+        RequestRecord that = (RequestRecord) o;
+        return createdAt == that.createdAt
+                && Objects.equals(messageId, that.messageId)
+                && Objects.equals(ownerId, that.ownerId)
+                && Objects.equals(payload, that.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, ownerId, payload, createdAt);
+    }
+
+    @Override
+    public String toString() {
+        return "RequestRecord{messageId='" + messageId + "', ownerId='" + ownerId + "', createdAt=" + createdAt + "}";
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.broker;
+
+import java.util.Objects;
+
+/**
+ * A RESULT item: written by the worker, collected (and deleted) by GET /messages/{id}. error is null on success.
+ */
+public final class ResultRecord {
+    private final String messageId;
+    private final String ownerId;
+    private final String payload;
+    private final String error;
+    private final long completedAt;
+
+    public ResultRecord(String messageId, String ownerId, String payload, String error, long completedAt) {
+        this.messageId = messageId;
+        this.ownerId = ownerId;
+        this.payload = payload;
+        this.error = error;
+        this.completedAt = completedAt;
+    }
+
+    public String messageId() {
+        return messageId;
+    }
+
+    public String ownerId() {
+        return ownerId;
+    }
+
+    public String payload() {
+        return payload;
+    }
+
+    public String error() {
+        return error;
+    }
+
+    /**
+     * Epoch millis
+     */
+    public long completedAt() {
+        return completedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResultRecord)) {
+            return false;
+        }
+        ResultRecord that = (ResultRecord) o;
+        return completedAt == that.completedAt
+                && Objects.equals(messageId, that.messageId)
+                && Objects.equals(ownerId, that.ownerId)
+                && Objects.equals(payload, that.payload)
+                && Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, ownerId, payload, error, completedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultRecord{messageId='" + messageId + "', ownerId='" + ownerId + "', error='" + error
+                + "', completedAt=" + completedAt + "}";
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.broker;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BrokerItemsTest {
+
+    @Test
+    public void requestRoundTrips() {
+        RequestRecord request = new RequestRecord("m-1", "matt", "10", 1000L);
+
+        Map<String, AttributeValue> item = BrokerItems.encode(request);
+
+        assertEquals("REQUEST", item.get("RecordType").s());
+        assertEquals("1000", item.get("createdAt").n());
+        assertEquals(RecordType.REQUEST, RecordType.of(item));
+        assertEquals(request, BrokerItems.decodeRequest(item));
+    }
+
+    @Test
+    public void resultRoundTripsWithAndWithoutError() {
+        ResultRecord ok = new ResultRecord("m-1", "matt", "2.3", null, 2000L);
+        ResultRecord failed = new ResultRecord("m-2", "matt", null, "Invalid input", 2000L);
+
+        Map<String, AttributeValue> okItem = BrokerItems.encode(ok);
+        Map<String, AttributeValue> failedItem = BrokerItems.encode(failed);
+
+        assertFalse(okItem.containsKey("error"));
+        assertFalse(failedItem.containsKey("payload"));
+        assertEquals(ok, BrokerItems.decodeResult(okItem));
+        assertEquals(failed, BrokerItems.decodeResult(failedItem));
+    }
+
+    @Test
+    public void cancelledRoundTrips() {
+        CancelledRecord cancelled = new CancelledRecord("m-1", "matt", 3000L);
+
+        assertEquals(cancelled, BrokerItems.decodeCancelled(BrokerItems.encode(cancelled)));
+    }
+
+    @Test
+    public void recordTypeValuesAreShared() {
+        Map<String, AttributeValue> first = BrokerItems.key("m-1", RecordType.RESULT);
+        Map<String, AttributeValue> second = BrokerItems.encode(new ResultRecord("m-2", "matt", "1", null, 1L));
+
+        assertSame(first.get("RecordType"), second.get("RecordType"));
+    }
+
+    @Test
+    public void decodesItemsWrittenBeforeTheCodec() {
+        Map<String, AttributeValue> legacy = Map.of(
+                "MessageId", AttributeValue.builder().s("m-1").build(),
+                "RecordType", AttributeValue.builder().s("REQUEST").build(),
+                "ownerId", AttributeValue.builder().s("matt").build()
+        );
+
+        RequestRecord request = BrokerItems.decodeRequest(legacy);
+
+        assertEquals(RecordType.REQUEST, RecordType.of(legacy));
+        assertNull(request.payload());
+        assertEquals(0L, request.createdAt());
+        assertNull(RecordType.of(Map.of("RecordType", AttributeValue.builder().s("SOMETHING").build())));
+    }
+
+    @Test
+    public void messageRecordsSortsItemsByType() {
+        RequestRecord request = new RequestRecord("m-1", "matt", "10", 1000L);
+        ResultRecord result = new ResultRecord("m-1", "matt", "2.3", null, 2000L);
+
+        MessageRecords pending = MessageRecords.of(List.of(BrokerItems.encode(request)));
+        MessageRecords settled = MessageRecords.of(List.of(BrokerItems.encode(result), BrokerItems.encode(request)));
+
+        assertEquals(request, pending.request());
+        assertFalse(pending.isSettled());
+        assertEquals(request, settled.request());
+        assertEquals(result, settled.result());
+        assertNull(settled.cancelled());
+        assertTrue(settled.isSettled());
+    }
+
+    @Test
+    public void resultWithoutCompletedAtIsRejected() {
+        Map<String, AttributeValue> item = BrokerItems.key("m-1", RecordType.RESULT);
+
+        assertThrows(IllegalArgumentException.class, () -> BrokerItems.decodeResult(item));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.broker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogValuesTest {
+
+    @Test
+    public void payloadsAreCutAndOwnersMasked() {
+        StringBuilder longPayload = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longPayload.append("1,");
+        }
+
+        assertEquals("12345", LogValues.truncate("12345"));
+        assertEquals(longPayload.substring(0, LogValues.MAX_PAYLOAD_CHARS) + "... (200 chars, truncated)",
+                LogValues.truncate(longPayload.toString()));
+        assertEquals("ma***", LogValues.mask("matt"));
+        assertEquals("***", LogValues.mask("m"));
+        assertNull(LogValues.mask(null));
+    }
+
+    @Test
+    public void samplingIsDecidedByRequestId() {
+        assertTrue(LogValues.isSampled("req-1", 1.0));
+        assertFalse(LogValues.isSampled("req-1", 0));
+        assertFalse(LogValues.isSampled(null, 0.5));
+        assertEquals(LogValues.isSampled("req-1", 0.5), LogValues.isSampled("req-1", 0.5));
+    }
+
+    @Test
+    public void anIdSampledAtALowRateIsSampledAtAHigherOne() {
+        for (int i = 0; i < 1_000; i++) {
+            String requestId = UUID.randomUUID().toString();
+            if (LogValues.isSampled(requestId, 0.1)) {
+                assertTrue(LogValues.isSampled(requestId, 0.5));
+            }
+        }
+    }
+}
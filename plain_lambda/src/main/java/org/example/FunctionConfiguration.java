@@ -1,117 +1,466 @@
 package org.example;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.example.broker.BrokerItems;
+import com.example.broker.LogValues;
+import com.example.broker.RecordType;
+import com.example.broker.ResultRecord;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.kernel.Kernel;
+import org.example.kernel.KernelRegistry;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-public class FunctionConfiguration implements RequestHandler<Map<String, Object>, String> {
+public class FunctionConfiguration implements RequestHandler<Map<String, Object>, Object> {
 
     private static final String TABLE_NAME = System.getenv().getOrDefault("TABLE_NAME", "message-broker");
+    // DynamoDB's hard limit for one BatchGetItem call
+    private static final int MAX_BATCH_GET = 100;
+    // How many RESULT puts are in flight at once
+    private static final int CONCURRENT_WRITES = Math.max(1,
+            Integer.parseInt(System.getenv().getOrDefault("CONCURRENT_WRITES", "10")));
+    private static final ExecutorService WRITERS = Executors.newFixedThreadPool(CONCURRENT_WRITES, runnable -> {
+        Thread thread = new Thread(runnable, "result-writer");
+        // Never keeps the runtime from exiting
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 50;
+    private static final int PROCESSED_IDS_CAPACITY =
+            Integer.parseInt(System.getenv().getOrDefault("PROCESSED_IDS_CAPACITY", "10000"));
+
     private final DynamoDbClient dynamoDbClient;
+    private final KernelRegistry kernels;
+    private final ProcessedMessageIds processed;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public FunctionConfiguration() {
-        this.dynamoDbClient = DynamoDbClient.builder()
+        this(DynamoDbClient.builder()
                 .region(Region.of(System.getenv().getOrDefault("AWS_REGION", "us-east-2")))
-                .build();
+                .build());
     }
 
-    @Override
-    public String handleRequest(Map<String, Object> event, Context context) {
-        LambdaLogger logger = context.getLogger();
-        logger.log("Received event: " + event);
+    FunctionConfiguration(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient, KernelRegistry.defaults());
+    }
+
+    FunctionConfiguration(DynamoDbClient dynamoDbClient, KernelRegistry kernels) {
+        this(dynamoDbClient, kernels, new ProcessedMessageIds(PROCESSED_IDS_CAPACITY));
+    }
+
+    FunctionConfiguration(DynamoDbClient dynamoDbClient, KernelRegistry kernels, ProcessedMessageIds processed) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.kernels = kernels;
+        this.processed = processed;
+    }
 
+    /**
+     * SQS events get a {@link BatchResponse}, so with ReportBatchItemFailures on the event source mapping only the
+     * failed messages are retried. Direct invocations still get a plain string back.
+     */
+    @Override
+    public Object handleRequest(Map<String, Object> event, Context context) {
+        WorkerLog log = WorkerLog.of(context);
 
         if (event.containsKey("Records")) {
             List<Map<String, Object>> records = (List<Map<String, Object>>) event.get("Records");
-
+            List<SqsEventReader.SqsRecord> sqsRecords = new ArrayList<>(records.size());
             for (Map<String, Object> record : records) {
-                String messageId = record.get("messageId").toString();
-                Map<String, Object> messageAttributes = (Map<String, Object>) record.get("messageAttributes");
+                sqsRecords.add(toSqsRecord(record));
+            }
+            log.debug(null, () -> "Received " + records.size() + " SQS messages");
+            return processBatch(sqsRecords, log);
+        } else {
+            // Direct API call
+            SendRequest sendRequest = objectMapper.convertValue(event, SendRequest.class);
+            String response = processRequest(sendRequest, log);
+            return response;
+        }
 
+    }
 
-                String ownerId = null;
-                String payload = null;
+    /**
+     * Shared by this handler and {@link StreamFunctionConfiguration}, which decodes the records itself.
+     */
+    BatchResponse processBatch(List<SqsEventReader.SqsRecord> records, WorkerLog log) {
+        List<String> failedMessageIds = new ArrayList<>();
+        List<SendRequest> requests = new ArrayList<>(records.size());
+        // batchItemFailures want the SQS messageId, the RESULT item carries the broker's MessageId
+        Map<String, String> sqsIdByMessageId = new HashMap<>();
+        int duplicates = 0;
+
+        for (SqsEventReader.SqsRecord record : records) {
+            String messageId = String.valueOf(record.messageId());
+            try {
+                SendRequest sendRequest = toSendRequest(record);
+                if (processed.contains(sendRequest.getMessageId())
+                        || sqsIdByMessageId.containsKey(sendRequest.getMessageId())) {
+                    // A redelivery; its RESULT is already written (or is being written by this batch)
+                    log.debug(sendRequest.getMessageId(), () -> "Skipping duplicate request");
+                    duplicates++;
+                    continue;
+                }
+                sqsIdByMessageId.put(sendRequest.getMessageId(), messageId);
+                requests.add(sendRequest);
+            } catch (IllegalArgumentException e) {
+                // A poison message only fails itself, not the rest of the batch
+                log.warn(messageId, () -> "Failing message: " + e.getMessage());
+                failedMessageIds.add(messageId);
+            }
+        }
 
-                if (messageAttributes != null) {
-                    Map<String, Object> ownerAttr = (Map<String, Object>) messageAttributes.get("OwnerId");
-                    Map<String, Object> payloadAttr = (Map<String, Object>) messageAttributes.get("Payload");
+        Map<String, RecordType> settled = settledMessageIds(requests, log);
+        int cancelled = 0;
+        Map<String, List<SendRequest>> byOperation = new LinkedHashMap<>();
+        for (SendRequest sendRequest : requests) {
+            RecordType settledBy = settled.get(sendRequest.getMessageId());
+            if (settledBy == RecordType.CANCELLED) {
+                // Done as far as SQS is concerned, there is nobody left to answer
+                log.debug(sendRequest.getMessageId(), () -> "Skipping cancelled request");
+                cancelled++;
+                continue;
+            }
+            if (settledBy == RecordType.RESULT) {
+                // Answered by an earlier delivery, maybe in another container
+                log.debug(sendRequest.getMessageId(), () -> "Skipping duplicate request");
+                processed.add(sendRequest.getMessageId());
+                duplicates++;
+                continue;
+            }
+            log.debug(sendRequest.getMessageId(), () -> "Processing " + operationOf(sendRequest) + " of "
+                    + LogValues.truncate(sendRequest.getPayload()));
+            byOperation.computeIfAbsent(operationOf(sendRequest), operation -> new ArrayList<>()).add(sendRequest);
+        }
 
-                    if (ownerAttr != null) {
-                        ownerId = (String) ownerAttr.get("stringValue");
-                    }
-                    if (payloadAttr != null) {
-                        payload = (String) payloadAttr.get("stringValue");
-                    }
+        List<ResultRecord> results = new ArrayList<>(requests.size());
+        for (Map.Entry<String, List<SendRequest>> group : byOperation.entrySet()) {
+            List<SendRequest> batch = group.getValue();
+            String[] computed = compute(group.getKey(), batch, log);
+            for (int i = 0; i < batch.size(); i++) {
+                if (computed[i] != null) {
+                    results.add(resultRecord(batch.get(i), computed[i]));
+                } else {
+                    // Poison, like a message with no payload
+                    String messageId = sqsIdByMessageId.get(batch.get(i).getMessageId());
+                    log.warn(messageId, () -> "Failing message: invalid input for " + group.getKey());
+                    failedMessageIds.add(messageId);
                 }
+            }
+        }
 
-                if (ownerId == null || payload == null) {
-                    logger.log("Missing OwnerId or Payload in messageAttributes");
-                    throw new IllegalArgumentException("Missing OwnerId or Payload");
+        for (String unwritten : writeResults(results, log)) {
+            failedMessageIds.add(sqsIdByMessageId.get(unwritten));
+        }
+
+        int cancelledCount = cancelled;
+        int duplicateCount = duplicates;
+        log.info(null, () -> "Processed " + records.size() + " SQS messages, " + cancelledCount + " cancelled, "
+                + duplicateCount + " duplicates, " + failedMessageIds.size() + " failed.");
+        return BatchResponse.of(failedMessageIds);
+    }
+
+    /**
+     * Looks up the CANCELLED and RESULT records for the whole batch in BatchGetItem calls of up to 100 keys (two
+     * per request), so neither cancelled requests nor ones an earlier delivery already answered are computed. Best
+     * effort: anything missed here is still caught by the conditional writes in {@link #writeResults}.
+     *
+     * @return the type of the record found, by MessageId
+     */
+    private Map<String, RecordType> settledMessageIds(List<SendRequest> requests, WorkerLog log) {
+        Map<String, RecordType> settled = new HashMap<>();
+        int perCall = MAX_BATCH_GET / 2;
+        for (int start = 0; start < requests.size(); start += perCall) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (SendRequest request : requests.subList(start, Math.min(start + perCall, requests.size()))) {
+                keys.add(BrokerItems.key(request.getMessageId(), RecordType.CANCELLED));
+                keys.add(BrokerItems.key(request.getMessageId(), RecordType.RESULT));
+            }
+            try {
+                for (Map<String, AttributeValue> item : readKeys(keys, false)) {
+                    String messageId = BrokerItems.stringOf(item, BrokerItems.MESSAGE_ID);
+                    RecordType type = RecordType.of(item);
+                    // A cancel can land just before a RESULT put; if both are there CANCELLED wins
+                    if (type != null && settled.get(messageId) != RecordType.CANCELLED) {
+                        settled.put(messageId, type);
+                    }
                 }
+            } catch (SdkException e) {
+                log.warn(null, () -> "Could not check for cancelled or answered requests: " + e.getMessage());
+            }
+        }
+        return settled;
+    }
 
-                // Build SendRequest manually
-                SendRequest sendRequest = new SendRequest();
-                sendRequest.setOwnerId(ownerId);
-                sendRequest.setPayload(payload);
-                sendRequest.setMessageId(messageId);
+    /**
+     * One BatchGetItem of at most MAX_BATCH_GET keys, retrying unprocessed keys with backoff. Keys still
+     * unprocessed after MAX_WRITE_ATTEMPTS are treated as not found.
+     *
+     * @return the MessageId and RecordType of the items found
+     */
+    private List<Map<String, AttributeValue>> readKeys(List<Map<String, AttributeValue>> keys, boolean consistent) {
+        List<Map<String, AttributeValue>> found = new ArrayList<>();
+        Map<String, KeysAndAttributes> pending = Collections.singletonMap(TABLE_NAME, KeysAndAttributes.builder()
+                .keys(keys)
+                .projectionExpression(BrokerItems.MESSAGE_ID + ", " + BrokerItems.RECORD_TYPE)
+                .consistentRead(consistent)
+                .build());
+        for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            if (attempt > 0 && !backoff(attempt)) {
+                break;
+            }
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+            found.addAll(response.responses().getOrDefault(TABLE_NAME, Collections.emptyList()));
+            pending = response.unprocessedKeys();
+        }
+        return found;
+    }
 
-                processRequest(sendRequest, logger);
+    private static SqsEventReader.SqsRecord toSqsRecord(Map<String, Object> record) {
+        Map<String, Object> messageAttributes = (Map<String, Object>) record.get("messageAttributes");
+        return new SqsEventReader.SqsRecord(
+                String.valueOf(record.get("messageId")),
+                stringValue(messageAttributes, "MessageId"),
+                stringValue(messageAttributes, "OwnerId"),
+                stringValue(messageAttributes, "Payload"),
+                stringValue(messageAttributes, "Operation")
+        );
+    }
+
+    private static String stringValue(Map<String, Object> messageAttributes, String name) {
+        if (messageAttributes == null) {
+            return null;
+        }
+        Map<String, Object> attribute = (Map<String, Object>) messageAttributes.get(name);
+        return attribute == null ? null : (String) attribute.get("stringValue");
+    }
+
+    private static SendRequest toSendRequest(SqsEventReader.SqsRecord record) {
+        if (record.ownerId() == null || record.payload() == null) {
+            throw new IllegalArgumentException("Missing OwnerId or Payload");
+        }
+
+        SendRequest sendRequest = new SendRequest();
+        sendRequest.setOwnerId(record.ownerId());
+        sendRequest.setPayload(record.payload());
+        sendRequest.setOperation(record.operation());
+        // The web API makes the MessageId before sending, older messages only have the SQS one
+        sendRequest.setMessageId(record.brokerMessageId() != null ? record.brokerMessageId() : record.messageId());
+        return sendRequest;
+    }
+
+    /**
+     * Writes each RESULT with its own PutItem, CONCURRENT_WRITES (default 10) at a time, only if there is no RESULT
+     * yet, so a redelivery never overwrites the first answer or its completedAt. That is one write unit per result;
+     * BatchWriteItem would cost the same but can't carry the condition.
+     * <p>
+     * A put can't check another item, so a cancel racing the put is settled afterwards, with one strongly
+     * consistent read of the CANCELLED keys of everything written (see {@link #dropCancelled}). Cancel only goes
+     * through while there is no RESULT, so that read is the last chance for one to show up.
+     *
+     * @return MessageIds whose RESULT could not be written
+     */
+    private List<String> writeResults(List<ResultRecord> results, WorkerLog log) {
+        List<ResultRecord> pending = results;
+        List<ResultRecord> written = new ArrayList<>(results.size());
+        for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            if (attempt > 0 && !backoff(attempt)) {
+                break;
+            }
+            List<CompletableFuture<PutOutcome>> puts = new ArrayList<>(pending.size());
+            for (ResultRecord result : pending) {
+                puts.add(CompletableFuture.supplyAsync(() -> putResult(result, log), WRITERS));
+            }
+            List<ResultRecord> retry = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                ResultRecord result = pending.get(i);
+                switch (puts.get(i).join()) {
+                    case WRITTEN:
+                        written.add(result);
+                        break;
+                    case ALREADY_ANSWERED:
+                        // Not a failure: an earlier delivery already wrote it
+                        log.info(result.messageId(), () -> "Dropping result for duplicate request");
+                        processed.add(result.messageId());
+                        break;
+                    default:
+                        retry.add(result);
+                }
             }
+            pending = retry;
+        }
+        if (!pending.isEmpty()) {
+            int unwritten = pending.size();
+            log.error(null, () -> "Giving up on " + unwritten + " RESULT writes after " + MAX_WRITE_ATTEMPTS
+                    + " attempts");
+        }
 
-            return "Processed " + records.size() + " SQS messages.";
-        } else {
-            // Direct API call
-            SendRequest sendRequest = objectMapper.convertValue(event, SendRequest.class);
-            String response = processRequest(sendRequest, logger);
-            return response;
+        dropCancelled(written, log);
+        List<String> failed = new ArrayList<>(pending.size());
+        for (ResultRecord unwritten : pending) {
+            failed.add(unwritten.messageId());
         }
+        return failed;
+    }
+
+    private enum PutOutcome { WRITTEN, ALREADY_ANSWERED, FAILED }
 
+    private PutOutcome putResult(ResultRecord result, WorkerLog log) {
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .item(BrokerItems.encode(result))
+                    .conditionExpression(BrokerItems.NOT_EXISTS)
+                    .build());
+            return PutOutcome.WRITTEN;
+        } catch (ConditionalCheckFailedException e) {
+            return PutOutcome.ALREADY_ANSWERED;
+        } catch (SdkException e) {
+            // Throttling and the like; the SDK has already retried, so back off and try again
+            log.warn(result.messageId(), () -> "PutItem failed: " + e.getMessage());
+            return PutOutcome.FAILED;
+        }
     }
 
-    private String processRequest(SendRequest request, LambdaLogger logger) {
-        logger.log("Processing request: " + request);
+    /**
+     * Reads the CANCELLED keys of the results just written, strongly consistent so a cancel that beat the put is
+     * seen, and deletes the RESULT of any that were cancelled. Until that delete lands status already answers
+     * CANCELLED, which it checks first. If the read fails the results stay as they are, for the same reason.
+     */
+    private void dropCancelled(List<ResultRecord> written, WorkerLog log) {
+        Set<String> cancelled = new HashSet<>();
+        for (int start = 0; start < written.size(); start += MAX_BATCH_GET) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (ResultRecord result : written.subList(start, Math.min(start + MAX_BATCH_GET, written.size()))) {
+                keys.add(BrokerItems.key(result.messageId(), RecordType.CANCELLED));
+            }
+            try {
+                for (Map<String, AttributeValue> item : readKeys(keys, true)) {
+                    cancelled.add(BrokerItems.stringOf(item, BrokerItems.MESSAGE_ID));
+                }
+            } catch (SdkException e) {
+                log.warn(null, () -> "Could not check written results for cancels: " + e.getMessage());
+            }
+        }
+
+        for (ResultRecord result : written) {
+            if (!cancelled.contains(result.messageId())) {
+                processed.add(result.messageId());
+                continue;
+            }
+            log.info(result.messageId(), () -> "Dropping result for cancelled request");
+            try {
+                dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(BrokerItems.key(result.messageId(), RecordType.RESULT))
+                        .build());
+            } catch (SdkException e) {
+                log.warn(result.messageId(), () -> "Could not delete the result of a cancelled request: "
+                        + e.getMessage());
+            }
+        }
+    }
 
-        double inputValue;
+    private static boolean backoff(int attempt) {
         try {
-            inputValue = Double.parseDouble(request.getPayload());
-        } catch (NumberFormatException e) {
-            logger.log("Invalid input for logarithm: " + e.getMessage());
-            throw new IllegalArgumentException("Invalid input for logarithm calculation: " + request.getPayload());
+            Thread.sleep(BASE_BACKOFF_MS << (attempt - 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
+    }
 
-        double result = Math.log(inputValue);
-        long now = Instant.now().toEpochMilli();
+    String processRequest(SendRequest request, WorkerLog log) {
+        log.debug(request.getMessageId(), () -> "Processing " + operationOf(request) + " of "
+                + LogValues.truncate(request.getPayload()));
+
+        RecordType settledBy = processed.contains(request.getMessageId())
+                ? RecordType.RESULT
+                : settledMessageIds(Collections.singletonList(request), log).get(request.getMessageId());
+        if (settledBy != null) {
+            String response = "Request " + request.getMessageId()
+                    + (settledBy == RecordType.CANCELLED ? " was cancelled" : " was already processed");
+            log.info(request.getMessageId(), () -> response);
+            return response;
+        }
 
-        Map<String, AttributeValue> resultItem = Map.of(
-                "MessageId", AttributeValue.builder().s(request.getMessageId()).build(),
-                "RecordType", AttributeValue.builder().s("RESULT").build(),
-                "ownerId", AttributeValue.builder().s(request.getOwnerId()).build(),
-                "payload", AttributeValue.builder().s(String.valueOf(result)).build(),
-                "completedAt", AttributeValue.builder().n(Long.toString(now)).build()
-        );
+        String operation = operationOf(request);
+        String result = compute(operation, Collections.singletonList(request), log)[0];
+        if (result == null) {
+            throw new IllegalArgumentException("Invalid input for " + operation + ": " + request.getPayload());
+        }
 
-        dynamoDbClient.putItem(PutItemRequest.builder()
-                .tableName(TABLE_NAME)
-                .item(resultItem)
-                .build());
+        if (!writeResults(Collections.singletonList(resultRecord(request, result)), log).isEmpty()) {
+            throw new IllegalStateException("Could not write the result for " + request.getMessageId());
+        }
 
-        String response = "Logarithm of " + inputValue + " is " + result;
-        logger.log("Returning response: " + response);
+        String response = kernels.get(operation).name() + " of " + request.getPayload() + " is " + result;
+        log.debug(request.getMessageId(), () -> "Returning response: " + LogValues.truncate(response));
         return response;
     }
 
+    private static String operationOf(SendRequest request) {
+        return request.getOperation() != null ? request.getOperation() : KernelRegistry.DEFAULT_OPERATION;
+    }
+
+    /**
+     * Runs one kernel over every payload for its operation and logs how long it took.
+     *
+     * @return the results by position, null for payloads the kernel rejected (or all null for an unknown operation)
+     */
+    private String[] compute(String operation, List<SendRequest> requests, WorkerLog log) {
+        int n = requests.size();
+        String[] results = new String[n];
+        Kernel kernel = kernels.get(operation);
+        if (kernel == null) {
+            log.warn(null, () -> "No kernel for operation " + operation);
+            return results;
+        }
+
+        String[] payloads = new String[n];
+        for (int i = 0; i < n; i++) {
+            payloads[i] = requests.get(i).getPayload();
+        }
+        long start = System.nanoTime();
+        kernel.compute(payloads, results, n);
+        long micros = (System.nanoTime() - start) / 1_000;
+        log.info(null, () -> "Kernel " + operation + " computed " + n + " payloads in " + micros + " us");
+        return results;
+    }
+
+    private static ResultRecord resultRecord(SendRequest request, String result) {
+        long now = Instant.now().toEpochMilli();
+
+        return new ResultRecord(request.getMessageId(), request.getOwnerId(), result, null, now);
+    }
+
 //    private Map<String, Object> parseBody(String body) throws Exception {
 //        JsonNode jsonNode = objectMapper.readTree(body);
 //        return objectMapper.convertValue(jsonNode, Map.class);
@@ -122,6 +471,7 @@ public class FunctionConfiguration implements RequestHandler<Map<String, Object>
         private String messageId;
         private String payload;
         private String ownerId;
+        private String operation;
         public SendRequest() {
             // Needed for Jackson deserialization
         }
@@ -151,9 +501,53 @@ public class FunctionConfiguration implements RequestHandler<Map<String, Object>
             this.ownerId = ownerId;
         }
 
+        /**
+         * Which kernel to run, null for the default (log)
+         */
+        public String getOperation() {
+            return operation;
+        }
+
+        public void setOperation(String operation) {
+            this.operation = operation;
+        }
+
         @Override
         public String toString() {
-            return "SendRequest{payload='" + payload + "', ownerId='" + ownerId + "'}";
+            return "SendRequest{payload='" + payload + "', ownerId='" + ownerId + "', operation='" + operation + "'}";
+        }
+    }
+
+    // --- SQSBatchResponse shaped reply, without pulling in aws-lambda-java-events ---
+    public static class BatchResponse {
+        private final List<BatchItemFailure> batchItemFailures;
+
+        public BatchResponse(List<BatchItemFailure> batchItemFailures) {
+            this.batchItemFailures = batchItemFailures;
+        }
+
+        static BatchResponse of(List<String> failedMessageIds) {
+            List<BatchItemFailure> failures = new ArrayList<>(failedMessageIds.size());
+            for (String messageId : failedMessageIds) {
+                failures.add(new BatchItemFailure(messageId));
+            }
+            return new BatchResponse(failures);
+        }
+
+        public List<BatchItemFailure> getBatchItemFailures() {
+            return batchItemFailures;
+        }
+
+        public static class BatchItemFailure {
+            private final String itemIdentifier;
+
+            public BatchItemFailure(String itemIdentifier) {
+                this.itemIdentifier = itemIdentifier;
+            }
+
+            public String getItemIdentifier() {
+                return itemIdentifier;
+            }
         }
     }
 }
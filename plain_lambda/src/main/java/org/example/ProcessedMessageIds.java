@@ -0,0 +1,41 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The broker MessageIds this container has seen a RESULT land for, least recently used evicted first. SQS delivers
+ * at least once, and a redelivery usually comes back to the same warm container, so it is dropped here before the
+ * DynamoDB lookup and before any computation. Anything evicted, or answered by another container, is still caught by
+ * the RESULT lookup and the conditional put in {@link FunctionConfiguration}.
+ * <p>
+ * Not thread safe: Lambda runs one invocation at a time per container.
+ */
+class ProcessedMessageIds {
+
+    private final Map<String, Boolean> ids;
+
+    ProcessedMessageIds(int capacity) {
+        this.ids = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    boolean contains(String messageId) {
+        // get, not containsKey, so a hit counts as a use
+        return messageId != null && ids.get(messageId) != null;
+    }
+
+    void add(String messageId) {
+        if (messageId != null) {
+            ids.put(messageId, Boolean.TRUE);
+        }
+    }
+
+    int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,183 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pulls messageId and the MessageId, OwnerId, Payload and Operation message attributes out of each SQS record with
+ * the streaming parser as the event is read, skipping everything else (body, attributes, md5s, event source...)
+ * without holding the whole event or building a tree.
+ */
+public class SqsEventReader {
+
+    private final JsonFactory jsonFactory;
+
+    public SqsEventReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * @param topLevelFields if not null, gets the top level scalar fields (as text) of an event that turns out not to
+     *                       be an SQS event, so a direct invocation can be bound without reading the input again
+     * @return the records, or null when the event is not an SQS event (no top level Records array)
+     * @throws IOException when the input is not JSON at all
+     */
+    public List<SqsRecord> read(InputStream event, Map<String, String> topLevelFields) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(event)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("Records".equals(field) && value == JsonToken.START_ARRAY) {
+                    List<SqsRecord> records = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        records.add(readRecord(parser));
+                    }
+                    return records;
+                }
+                if (topLevelFields != null && value.isScalarValue()) {
+                    topLevelFields.put(field, parser.getValueAsString());
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    private static SqsRecord readRecord(JsonParser parser) throws IOException {
+        String messageId = null;
+        String brokerMessageId = null;
+        String ownerId = null;
+        String payload = null;
+        String operation = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("messageId".equals(field)) {
+                messageId = parser.getValueAsString();
+            } else if ("messageAttributes".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    switch (name) {
+                        case "MessageId":
+                            brokerMessageId = readStringValue(parser);
+                            break;
+                        case "OwnerId":
+                            ownerId = readStringValue(parser);
+                            break;
+                        case "Payload":
+                            payload = readStringValue(parser);
+                            break;
+                        case "Operation":
+                            operation = readStringValue(parser);
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new SqsRecord(messageId, brokerMessageId, ownerId, payload, operation);
+    }
+
+    /**
+     * Reads {"stringValue": ..., "dataType": ...} and returns the stringValue
+     */
+    private static String readStringValue(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("stringValue".equals(field)) {
+                value = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * One SQS message as the worker sees it. messageId is SQS's own (what batchItemFailures want), brokerMessageId
+     * the MessageId attribute the web API sets, operation picks the kernel. Missing attributes are null.
+     */
+    public static final class SqsRecord {
+        private final String messageId;
+        private final String brokerMessageId;
+        private final String ownerId;
+        private final String payload;
+        private final String operation;
+
+        public SqsRecord(String messageId, String brokerMessageId, String ownerId, String payload, String operation) {
+            this.messageId = messageId;
+            this.brokerMessageId = brokerMessageId;
+            this.ownerId = ownerId;
+            this.payload = payload;
+            this.operation = operation;
+        }
+
+        public String messageId() {
+            return messageId;
+        }
+
+        public String brokerMessageId() {
+            return brokerMessageId;
+        }
+
+        public String ownerId() {
+            return ownerId;
+        }
+
+        public String payload() {
+            return payload;
+        }
+
+        public String operation() {
+            return operation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SqsRecord)) {
+                return false;
+            }
+            SqsRecord that = (SqsRecord) o;
+            return Objects.equals(messageId, that.messageId)
+                    && Objects.equals(brokerMessageId, that.brokerMessageId)
+                    && Objects.equals(ownerId, that.ownerId)
+                    && Objects.equals(payload, that.payload)
+                    && Objects.equals(operation, that.operation);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(messageId, brokerMessageId, ownerId, payload, operation);
+        }
+
+        @Override
+        public String toString() {
+            return "SqsRecord{messageId='" + messageId + "', brokerMessageId='" + brokerMessageId + "', ownerId='"
+                    + ownerId + "', operation='" + operation + "'}";
+        }
+    }
+}
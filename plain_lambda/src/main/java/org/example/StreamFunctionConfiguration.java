@@ -0,0 +1,53 @@
+package org.example;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The same worker as {@link FunctionConfiguration}, but it takes the raw event instead of letting the runtime
+ * build a Map of Maps for it. SQS events are decoded straight off the input stream by {@link SqsEventReader}, which
+ * keeps only messageId, MessageId, OwnerId, Payload and Operation. Anything else is treated as a direct invocation
+ * and its top level fields are bound to a SendRequest, as before.
+ * <p>
+ * Handler: {@code org.example.StreamFunctionConfiguration::handleRequest}
+ */
+public class StreamFunctionConfiguration implements RequestStreamHandler {
+
+    private final FunctionConfiguration function;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SqsEventReader sqsEventReader = new SqsEventReader(objectMapper.getFactory());
+
+    public StreamFunctionConfiguration() {
+        this(new FunctionConfiguration());
+    }
+
+    StreamFunctionConfiguration(FunctionConfiguration function) {
+        this.function = function;
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        WorkerLog log = WorkerLog.of(context);
+        Map<String, String> fields = new HashMap<>();
+
+        Object response;
+        List<SqsEventReader.SqsRecord> records = sqsEventReader.read(input, fields);
+        if (records != null) {
+            log.debug(null, () -> "Received " + records.size() + " SQS messages");
+            response = function.processBatch(records, log);
+        } else {
+            // Direct API call
+            response = function.processRequest(
+                    objectMapper.convertValue(fields, FunctionConfiguration.SendRequest.class), log);
+        }
+        objectMapper.writeValue(output, response);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.example.broker.LogValues;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The worker's log for one invocation: one JSON object per line,
+ * {"level":..,"awsRequestId":..,"messageId":..,"message":..}, written through the invocation's LambdaLogger.
+ * <ul>
+ * <li>Lines below LOG_LEVEL (DEBUG, INFO, WARN, ERROR; default INFO) are never built: messages are Suppliers.</li>
+ * <li>Only LOG_SAMPLE_RATE (0 to 1, default 1) of the invocations, picked by awsRequestId the same way as in the
+ * web API ({@link LogValues#isSampled}), write their DEBUG and INFO lines. The others hold on to them and only
+ * write them if a WARN or ERROR comes up, so a failure is logged with what led to it.</li>
+ * <li>Messages are cut at MAX_MESSAGE_CHARS; payloads should go through {@link LogValues#truncate}.</li>
+ * </ul>
+ * There is no background writer: Lambda freezes the sandbox as soon as the handler returns, so anything still
+ * queued would only come out at the next invocation, or never.
+ */
+final class WorkerLog {
+
+    enum Level { DEBUG, INFO, WARN, ERROR }
+
+    static final int MAX_MESSAGE_CHARS = 512;
+    private static final int MAX_HELD_LINES = 100;
+
+    private static final Level THRESHOLD = level(System.getenv().getOrDefault("LOG_LEVEL",
+            System.getenv().getOrDefault("AWS_LAMBDA_LOG_LEVEL", "INFO")));
+    private static final double SAMPLE_RATE =
+            Double.parseDouble(System.getenv().getOrDefault("LOG_SAMPLE_RATE", "1.0"));
+
+    private final LambdaLogger sink;
+    private final String awsRequestId;
+    private final Level threshold;
+    private final boolean sampled;
+    private List<String> held;
+
+    WorkerLog(LambdaLogger sink, String awsRequestId, Level threshold, double sampleRate) {
+        this.sink = sink;
+        this.awsRequestId = awsRequestId;
+        this.threshold = threshold;
+        this.sampled = LogValues.isSampled(awsRequestId, sampleRate);
+    }
+
+    static WorkerLog of(Context context) {
+        return new WorkerLog(context.getLogger(), context.getAwsRequestId(), THRESHOLD, SAMPLE_RATE);
+    }
+
+    boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    void debug(String messageId, Supplier<String> message) {
+        log(Level.DEBUG, messageId, message);
+    }
+
+    void info(String messageId, Supplier<String> message) {
+        log(Level.INFO, messageId, message);
+    }
+
+    void warn(String messageId, Supplier<String> message) {
+        log(Level.WARN, messageId, message);
+    }
+
+    void error(String messageId, Supplier<String> message) {
+        log(Level.ERROR, messageId, message);
+    }
+
+    private void log(Level level, String messageId, Supplier<String> message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        String line = line(level, messageId, message.get());
+        if (level.compareTo(Level.WARN) >= 0) {
+            if (held != null) {
+                // What led up to the failure, in order
+                for (String earlier : held) {
+                    sink.log(earlier);
+                }
+                held = null;
+            }
+            sink.log(line);
+        } else if (sampled) {
+            sink.log(line);
+        } else {
+            if (held == null) {
+                held = new ArrayList<>();
+            }
+            if (held.size() < MAX_HELD_LINES) {
+                held.add(line);
+            }
+        }
+    }
+
+    private String line(Level level, String messageId, String message) {
+        if (message != null && message.length() > MAX_MESSAGE_CHARS) {
+            message = message.substring(0, MAX_MESSAGE_CHARS) + "... (" + message.length() + " chars, truncated)";
+        }
+        StringBuilder line = new StringBuilder(96 + (message == null ? 0 : message.length()));
+        line.append("{\"level\":\"").append(level.name()).append('"');
+        field(line, "awsRequestId", awsRequestId);
+        field(line, "messageId", messageId);
+        field(line, "message", message);
+        return line.append('}').toString();
+    }
+
+    private static void field(StringBuilder line, String name, String value) {
+        if (value != null) {
+            line.append(",\"").append(name).append("\":\"")
+                    .append(JsonStringEncoder.getInstance().quoteAsString(value)).append('"');
+        }
+    }
+
+    private static Level level(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
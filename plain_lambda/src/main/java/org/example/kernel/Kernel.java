@@ -0,0 +1,19 @@
+package org.example.kernel;
+
+/**
+ * One operation the worker can run, picked by the Operation message attribute. A kernel gets every payload for
+ * its operation in the batch at once, so it can parse them into primitive arrays and compute in one pass.
+ */
+public interface Kernel {
+
+    /**
+     * What the direct invocation response calls the result, e.g. "Logarithm"
+     */
+    String name();
+
+    /**
+     * Computes payloads[0..n). results[i] is the answer for payloads[i], or null when payloads[i] isn't valid input
+     * for this kernel.
+     */
+    void compute(String[] payloads, String[] results, int n);
+}
@@ -0,0 +1,42 @@
+package org.example.kernel;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The kernels by Operation attribute value. Messages without one are "log", which is all the worker used to do.
+ */
+public class KernelRegistry {
+
+    public static final String DEFAULT_OPERATION = "log";
+
+    private final Map<String, Kernel> kernels = new LinkedHashMap<>();
+
+    /**
+     * log, exp, stats and sliding-window
+     */
+    public static KernelRegistry defaults() {
+        return new KernelRegistry()
+                .register(DEFAULT_OPERATION, ScalarKernel.log())
+                .register("exp", ScalarKernel.exp())
+                .register("stats", new StatsKernel())
+                .register("sliding-window", new SlidingWindowKernel());
+    }
+
+    public KernelRegistry register(String operation, Kernel kernel) {
+        kernels.put(operation, kernel);
+        return this;
+    }
+
+    /**
+     * @return the kernel, or null if there is none for this operation
+     */
+    public Kernel get(String operation) {
+        return kernels.get(operation == null ? DEFAULT_OPERATION : operation);
+    }
+
+    public Map<String, Kernel> kernels() {
+        return Collections.unmodifiableMap(kernels);
+    }
+}
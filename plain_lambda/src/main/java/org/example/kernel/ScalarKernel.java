@@ -0,0 +1,63 @@
+package org.example.kernel;
+
+/**
+ * A function of one number. The batch is parsed into a double[], then {@link #apply} runs one tight loop over it.
+ */
+public abstract class ScalarKernel implements Kernel {
+
+    private final String name;
+
+    protected ScalarKernel(String name) {
+        this.name = name;
+    }
+
+    public static ScalarKernel log() {
+        return new ScalarKernel("Logarithm") {
+            @Override
+            protected void apply(double[] in, double[] out, int n) {
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.log(in[i]);
+                }
+            }
+        };
+    }
+
+    public static ScalarKernel exp() {
+        return new ScalarKernel("Exponential") {
+            @Override
+            protected void apply(double[] in, double[] out, int n) {
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.exp(in[i]);
+                }
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    protected abstract void apply(double[] in, double[] out, int n);
+
+    @Override
+    public void compute(String[] payloads, String[] results, int n) {
+        double[] in = new double[n];
+        boolean[] valid = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            try {
+                in[i] = Double.parseDouble(payloads[i]);
+                valid[i] = true;
+            } catch (NumberFormatException | NullPointerException e) {
+                valid[i] = false;
+            }
+        }
+
+        double[] out = new double[n];
+        apply(in, out, n);
+
+        for (int i = 0; i < n; i++) {
+            results[i] = valid[i] ? String.valueOf(out[i]) : null;
+        }
+    }
+}
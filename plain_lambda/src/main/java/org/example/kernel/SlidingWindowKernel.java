@@ -0,0 +1,52 @@
+package org.example.kernel;
+
+import com.example.interviews.window.LongSeries;
+import com.example.interviews.window.SlidingWindow;
+
+/**
+ * The web API's GET /api/sliding-window as a job: the payload is {@code windowSize:n1,n2,...} and the answer is the
+ * largest window sum, 0 when the window doesn't fit. Same engine, so long inputs go parallel the same way.
+ */
+public class SlidingWindowKernel implements Kernel {
+
+    @Override
+    public String name() {
+        return "Sliding window max sum";
+    }
+
+    @Override
+    public void compute(String[] payloads, String[] results, int n) {
+        for (int p = 0; p < n; p++) {
+            results[p] = maxSum(payloads[p]);
+        }
+    }
+
+    private static String maxSum(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        int split = payload.indexOf(':');
+        if (split <= 0) {
+            return null;
+        }
+        try {
+            int windowSize = Integer.parseInt(payload.substring(0, split).trim());
+            LongSeries series = new LongSeries();
+            int start = split + 1;
+            while (start < payload.length()) {
+                int end = payload.indexOf(',', start);
+                if (end < 0) {
+                    end = payload.length();
+                }
+                series.add(Long.parseLong(payload.substring(start, end).trim()));
+                start = end + 1;
+            }
+            if (!SlidingWindow.isValid(series.size(), windowSize)) {
+                return "0";
+            }
+            return Long.toString(SlidingWindow.maxSum(series.values(), series.size(), windowSize));
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.kernel;
+
+/**
+ * Summary statistics of a comma separated list of numbers, answered as
+ * {@code {"count":3,"mean":2.0,"min":1.0,"max":3.0,"stddev":0.816496580927726}}. One pass per payload (Welford's
+ * update for the variance), population standard deviation.
+ */
+public class StatsKernel implements Kernel {
+
+    @Override
+    public String name() {
+        return "Statistics";
+    }
+
+    @Override
+    public void compute(String[] payloads, String[] results, int n) {
+        double[] values = new double[16];
+        for (int p = 0; p < n; p++) {
+            String[] parts = payloads[p] == null ? new String[0] : payloads[p].split(",");
+            if (parts.length > values.length) {
+                values = new double[parts.length];
+            }
+            results[p] = parse(parts, values) ? summarize(values, parts.length) : null;
+        }
+    }
+
+    private static boolean parse(String[] parts, double[] values) {
+        if (parts.length == 0) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = Double.parseDouble(parts[i].trim());
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String summarize(double[] values, int count) {
+        double mean = 0;
+        double m2 = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double value = values[i];
+            double delta = value - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return "{\"count\":" + count
+                + ",\"mean\":" + mean
+                + ",\"min\":" + min
+                + ",\"max\":" + max
+                + ",\"stddev\":" + Math.sqrt(m2 / count)
+                + "}";
+    }
+}
@@ -1,13 +1,440 @@
 package org.example;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class AppTest {
 
     @Test
-    public void handleRequest_shouldReturnConstantValue() {
+    public void handleRequest_poisonMessageOnlyFailsItself() {
+        FakeDynamo dynamo = new FakeDynamo();
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+
+        Object response = function.handleRequest(sqsEvent(
+                record("m-1", "matt", "10"),
+                record("m-2", "matt", "not a number"),
+                record("m-3", "matt", "100")
+        ), new TestContext());
+
+        assertEquals(List.of("m-2"), failedIds(response));
+        assertEquals(List.of("m-1", "m-3"), messageIds(dynamo.puts));
+    }
+
+    @Test
+    public void handleRequest_writesEachResultOnceThenChecksForCancels() {
+        FakeDynamo dynamo = new FakeDynamo();
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+
+        Object response = function.handleRequest(Map.of("Records", records(12)), new TestContext());
+
+        assertTrue(failedIds(response).isEmpty());
+        assertEquals(12, dynamo.puts.size());
+        assertEquals(12, dynamo.written.size());
+        // The lookup before computing, then the consistent check after writing
+        assertEquals(2, dynamo.batchGets);
+        assertEquals(1, dynamo.consistentBatchGets);
+        assertTrue(dynamo.deleted.isEmpty());
+    }
+
+    @Test
+    public void handleRequest_retriesThrottledPut() {
+        FakeDynamo dynamo = new FakeDynamo();
+        dynamo.throttleOnce = true;
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+
+        Object response = function.handleRequest(sqsEvent(
+                record("m-1", "matt", "10"),
+                record("m-2", "matt", "20")
+        ), new TestContext());
+
+        assertTrue(failedIds(response).isEmpty());
+        assertEquals(3, dynamo.puts.size());
+        assertEquals(List.of("m-1", "m-2"), messageIds(dynamo.written));
+    }
+
+    @Test
+    public void handleRequest_skipsCancelledRequestsWithoutFailingThem() {
+        FakeDynamo dynamo = new FakeDynamo();
+        dynamo.cancelled.add("m-2");
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+
+        Object response = function.handleRequest(sqsEvent(
+                record("m-1", "matt", "10"),
+                record("m-2", "matt", "20"),
+                record("m-3", "matt", "30")
+        ), new TestContext());
+
+        assertTrue(failedIds(response).isEmpty());
+        assertEquals(List.of("m-1", "m-3"), messageIds(dynamo.puts));
+    }
+
+    @Test
+    public void handleRequest_dropsResultCancelledWhileComputing() {
+        FakeDynamo dynamo = new FakeDynamo();
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+        // Cancelled after the lookup, so only the check after writing sees it
+        dynamo.cancelledAtWrite.add("m-7");
+
+        Object response = function.handleRequest(Map.of("Records", records(12)), new TestContext());
+
+        assertTrue(failedIds(response).isEmpty());
+        assertEquals(12, dynamo.puts.size());
+        assertEquals(11, dynamo.written.size());
+        assertFalse(messageIds(dynamo.written).contains("m-7"));
+        assertEquals(List.of("m-7"), dynamo.deleted);
+    }
+
+    @Test
+    public void handleRequest_skipsRedeliveryBeforeTouchingDynamo() {
+        FakeDynamo dynamo = new FakeDynamo();
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+        Map<String, Object> event = sqsEvent(record("m-1", "matt", "10"), record("m-1", "matt", "10"));
+
+        Object first = function.handleRequest(event, new TestContext());
+        Object redelivered = function.handleRequest(event, new TestContext());
+
+        assertTrue(failedIds(first).isEmpty());
+        assertTrue(failedIds(redelivered).isEmpty());
+        assertEquals(2, dynamo.batchGets);
+        assertEquals(1, dynamo.puts.size());
+        assertEquals(List.of("m-1"), messageIds(dynamo.written));
+    }
+
+    @Test
+    public void handleRequest_skipsRequestAnsweredByAnotherContainer() {
+        FakeDynamo dynamo = new FakeDynamo();
+        new FunctionConfiguration(dynamo).handleRequest(sqsEvent(record("m-1", "matt", "10")), new TestContext());
+
+        Object response = new FunctionConfiguration(dynamo).handleRequest(sqsEvent(
+                record("m-1", "matt", "10"),
+                record("m-2", "matt", "20")
+        ), new TestContext());
+
+        assertTrue(failedIds(response).isEmpty());
+        assertEquals(List.of("m-1", "m-2"), messageIds(dynamo.puts));
+    }
+
+    @Test
+    public void handleRequest_resultAnsweredWhileComputingIsNotOverwritten() {
+        FakeDynamo dynamo = new FakeDynamo();
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+        // Written by another delivery after the lookup, so only the put's condition sees it
+        dynamo.answeredAtWrite.add("m-2");
+
+        Object response = function.handleRequest(sqsEvent(
+                record("m-1", "matt", "10"),
+                record("m-2", "matt", "20")
+        ), new TestContext());
+
+        assertTrue(failedIds(response).isEmpty());
+        assertEquals(2, dynamo.puts.size());
+        assertEquals(List.of("m-1"), messageIds(dynamo.written));
+        function.handleRequest(sqsEvent(record("m-2", "matt", "20")), new TestContext());
+        assertEquals(2, dynamo.puts.size());
+    }
+
+    @Test
+    public void handleRequest_usesBrokerMessageIdAttributeForResult() {
+        FakeDynamo dynamo = new FakeDynamo();
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+
+        Map<String, Object> record = record("sqs-1", "matt", "10");
+        ((Map<String, Object>) record.get("messageAttributes"))
+                .put("MessageId", Map.of("stringValue", "broker-1", "dataType", "String"));
+
+        function.handleRequest(sqsEvent(record), new TestContext());
+
+        assertEquals("broker-1", dynamo.puts.get(0).get("MessageId").s());
+    }
+
+    @Test
+    public void handleRequest_routesEachMessageToItsOperationsKernel() {
+        FakeDynamo dynamo = new FakeDynamo();
+        FunctionConfiguration function = new FunctionConfiguration(dynamo);
+
+        Map<String, Object> exp = record("m-2", "matt", "0");
+        operation(exp, "exp");
+        Map<String, Object> window = record("m-3", "matt", "2:1,5,2");
+        operation(window, "sliding-window");
+        Map<String, Object> unknown = record("m-4", "matt", "4");
+        operation(unknown, "sqrt");
+
+        Object response = function.handleRequest(sqsEvent(record("m-1", "matt", "1"), exp, window, unknown),
+                new TestContext());
+
+        assertEquals(List.of("m-4"), failedIds(response));
+        Map<String, String> payloads = new HashMap<>();
+        for (Map<String, AttributeValue> item : dynamo.written) {
+            payloads.put(item.get("MessageId").s(), item.get("payload").s());
+        }
+        assertEquals(Map.of("m-1", "0.0", "m-2", "1.0", "m-3", "7"), payloads);
+    }
+
+    @Test
+    public void streamHandler_answersSqsEventsWithBatchItemFailures() throws IOException {
+        FakeDynamo dynamo = new FakeDynamo();
+        StreamFunctionConfiguration function = new StreamFunctionConfiguration(new FunctionConfiguration(dynamo));
+        String event = "{\"Records\": ["
+                + "{\"messageId\": \"sqs-1\", \"messageAttributes\": {"
+                + "\"MessageId\": {\"stringValue\": \"m-1\", \"dataType\": \"String\"},"
+                + "\"OwnerId\": {\"stringValue\": \"matt\", \"dataType\": \"String\"},"
+                + "\"Payload\": {\"stringValue\": \"10\", \"dataType\": \"String\"}}},"
+                + "{\"messageId\": \"sqs-2\", \"messageAttributes\": {"
+                + "\"OwnerId\": {\"stringValue\": \"matt\", \"dataType\": \"String\"},"
+                + "\"Payload\": {\"stringValue\": \"not a number\", \"dataType\": \"String\"}}}"
+                + "]}";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        function.handleRequest(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)), output,
+                new TestContext());
+
+        assertEquals("{\"batchItemFailures\":[{\"itemIdentifier\":\"sqs-2\"}]}",
+                output.toString(StandardCharsets.UTF_8.name()));
+        assertEquals(List.of("m-1"), messageIds(dynamo.written));
+    }
+
+    @Test
+    public void streamHandler_stillTakesDirectInvocations() throws IOException {
+        FakeDynamo dynamo = new FakeDynamo();
+        StreamFunctionConfiguration function = new StreamFunctionConfiguration(new FunctionConfiguration(dynamo));
+        String event = "{\"messageId\": \"m-1\", \"ownerId\": \"matt\", \"payload\": \"1\"}";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        function.handleRequest(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)), output,
+                new TestContext());
+
+        assertEquals("\"Logarithm of 1 is 0.0\"", output.toString(StandardCharsets.UTF_8.name()));
+        assertEquals(List.of("m-1"), messageIds(dynamo.written));
+    }
+
+    /**
+     * Sorted, since the puts run concurrently and land in any order
+     */
+    private static List<String> messageIds(List<Map<String, AttributeValue>> items) {
+        List<String> ids = new ArrayList<>();
+        for (Map<String, AttributeValue> item : items) {
+            ids.add(item.get("MessageId").s());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static List<String> failedIds(Object response) {
+        List<String> ids = new ArrayList<>();
+        for (FunctionConfiguration.BatchResponse.BatchItemFailure failure
+                : ((FunctionConfiguration.BatchResponse) response).getBatchItemFailures()) {
+            ids.add(failure.getItemIdentifier());
+        }
+        return ids;
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> sqsEvent(Map<String, Object>... records) {
+        return Map.of("Records", List.of(records));
+    }
+
+    private static void operation(Map<String, Object> record, String operation) {
+        ((Map<String, Object>) record.get("messageAttributes"))
+                .put("Operation", Map.of("stringValue", operation, "dataType", "String"));
+    }
+
+    /**
+     * m-0 to m-(n-1), each with a valid payload
+     */
+    private static List<Map<String, Object>> records(int n) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            records.add(record("m-" + i, "matt", Integer.toString(i + 1)));
+        }
+        return records;
+    }
+
+    private static Map<String, Object> record(String messageId, String ownerId, String payload) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("OwnerId", Map.of("stringValue", ownerId, "dataType", "String"));
+        attributes.put("Payload", Map.of("stringValue", payload, "dataType", "String"));
+
+        Map<String, Object> record = new HashMap<>();
+        record.put("messageId", messageId);
+        record.put("messageAttributes", attributes);
+        return record;
+    }
+
+    /**
+     * Records every RESULT put. MessageIds in cancelled have a CANCELLED record from the start, ones in
+     * cancelledAtWrite get theirs once the first put arrives, after the lookup. Puts for MessageIds already written,
+     * or in answeredAtWrite, fail their attribute_not_exists condition. When throttleOnce is set, the first put is
+     * throttled.
+     */
+    private static class FakeDynamo implements DynamoDbClient {
+        final List<Map<String, AttributeValue>> puts = new ArrayList<>();
+        final List<Map<String, AttributeValue>> written = new ArrayList<>();
+        final List<String> deleted = new ArrayList<>();
+        final Set<String> cancelled = new HashSet<>();
+        final Set<String> cancelledAtWrite = new HashSet<>();
+        final Set<String> answeredAtWrite = new HashSet<>();
+        boolean throttleOnce;
+        int batchGets;
+        int consistentBatchGets;
+
+        @Override
+        public synchronized BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+            batchGets++;
+            String table = request.requestItems().keySet().iterator().next();
+            if (Boolean.TRUE.equals(request.requestItems().get(table).consistentRead())) {
+                consistentBatchGets++;
+            }
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            for (Map<String, AttributeValue> key : request.requestItems().get(table).keys()) {
+                String messageId = key.get("MessageId").s();
+                boolean exists = "CANCELLED".equals(key.get("RecordType").s())
+                        ? cancelled.contains(messageId)
+                        : isWritten(messageId);
+                if (exists) {
+                    found.add(key);
+                }
+            }
+            return BatchGetItemResponse.builder()
+                    .responses(Map.of(table, found))
+                    .unprocessedKeys(Collections.emptyMap())
+                    .build();
+        }
+
+        @Override
+        public synchronized PutItemResponse putItem(PutItemRequest request) {
+            cancelled.addAll(cancelledAtWrite);
+            puts.add(request.item());
+            if (throttleOnce) {
+                throttleOnce = false;
+                throw ProvisionedThroughputExceededException.builder().message("slow down").build();
+            }
+            String messageId = request.item().get("MessageId").s();
+            if (isWritten(messageId) || answeredAtWrite.contains(messageId)) {
+                throw ConditionalCheckFailedException.builder().message("already there").build();
+            }
+            written.add(request.item());
+            return PutItemResponse.builder().build();
+        }
+
+        @Override
+        public synchronized DeleteItemResponse deleteItem(DeleteItemRequest request) {
+            String messageId = request.key().get("MessageId").s();
+            deleted.add(messageId);
+            written.removeIf(item -> item.get("MessageId").s().equals(messageId)
+                    && item.get("RecordType").s().equals(request.key().get("RecordType").s()));
+            return DeleteItemResponse.builder().build();
+        }
+
+        private boolean isWritten(String messageId) {
+            for (Map<String, AttributeValue> item : written) {
+                if (item.get("MessageId").s().equals(messageId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class TestContext implements Context {
+        @Override
+        public String getAwsRequestId() {
+            return "test-request";
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return null;
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return null;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "test";
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return null;
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return null;
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return 60_000;
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return 1024;
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                }
 
+                @Override
+                public void log(byte[] message) {
+                }
+            };
+        }
     }
 }
@@ -0,0 +1,69 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SqsEventReaderTest {
+
+    private final SqsEventReader reader = new SqsEventReader(new JsonFactory());
+
+    @Test
+    public void readsOnlyTheAttributesTheWorkerUses() throws IOException {
+        String event = "{\"Records\": ["
+                + "{\"messageId\": \"sqs-1\", \"receiptHandle\": \"abc\", \"body\": \"ignored\","
+                + " \"attributes\": {\"ApproximateReceiveCount\": \"1\"},"
+                + " \"messageAttributes\": {"
+                + "   \"MessageId\": {\"stringValue\": \"m-1\", \"stringListValues\": [], \"dataType\": \"String\"},"
+                + "   \"OwnerId\": {\"stringValue\": \"matt\", \"dataType\": \"String\"},"
+                + "   \"Payload\": {\"stringValue\": \"10\", \"dataType\": \"String\"},"
+                + "   \"Operation\": {\"stringValue\": \"exp\", \"dataType\": \"String\"},"
+                + "   \"Other\": {\"stringValue\": \"x\", \"dataType\": \"String\"}},"
+                + " \"eventSource\": \"aws:sqs\"},"
+                + "{\"messageId\": \"sqs-2\", \"messageAttributes\": {"
+                + "   \"OwnerId\": {\"stringValue\": \"matt\", \"dataType\": \"String\"}}}"
+                + "]}";
+
+        List<SqsEventReader.SqsRecord> records = reader.read(stream(event), null);
+
+        assertEquals(Arrays.asList(
+                new SqsEventReader.SqsRecord("sqs-1", "m-1", "matt", "10", "exp"),
+                new SqsEventReader.SqsRecord("sqs-2", null, "matt", null, null)
+        ), records);
+    }
+
+    @Test
+    public void emptyRecordsIsAnEmptyBatch() throws IOException {
+        assertEquals(Collections.emptyList(), reader.read(stream("{\"Records\": []}"), null));
+    }
+
+    @Test
+    public void directInvocationIsNotAnSqsEventButKeepsItsFields() throws IOException {
+        String event = "{\"ownerId\": \"matt\", \"payload\": 10, \"messageId\": \"m-1\", \"extra\": {\"a\": 1}}";
+        Map<String, String> fields = new HashMap<>();
+
+        assertNull(reader.read(stream(event), fields));
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("ownerId", "matt");
+        expected.put("payload", "10");
+        expected.put("messageId", "m-1");
+        assertEquals(expected, fields);
+    }
+
+    private static InputStream stream(String event) {
+        return new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8));
+    }
+}
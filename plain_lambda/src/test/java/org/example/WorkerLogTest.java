@@ -0,0 +1,65 @@
+package org.example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkerLogTest {
+
+    @Test
+    public void writesOneEscapedJsonLinePerMessageAtOrAboveTheLevel() {
+        Lines lines = new Lines();
+        WorkerLog log = new WorkerLog(lines, "req-1", WorkerLog.Level.INFO, 1.0);
+
+        log.debug("m1", () -> {
+            throw new AssertionError("DEBUG message built below INFO");
+        });
+        log.info("m1", () -> "said \"hi\"\n");
+        log.warn(null, () -> "careful");
+
+        assertEquals(Arrays.asList(
+                "{\"level\":\"INFO\",\"awsRequestId\":\"req-1\",\"messageId\":\"m1\",\"message\":\"said \\\"hi\\\"\\n\"}",
+                "{\"level\":\"WARN\",\"awsRequestId\":\"req-1\",\"message\":\"careful\"}"
+        ), lines.written);
+    }
+
+    @Test
+    public void unsampledInvocationsOnlyWriteTheirInfoLinesWhenSomethingGoesWrong() {
+        Lines quiet = new Lines();
+        WorkerLog log = new WorkerLog(quiet, "req-1", WorkerLog.Level.INFO, 0);
+        log.info(null, () -> "first");
+        log.info(null, () -> "second");
+        assertTrue(quiet.written.isEmpty());
+
+        Lines failing = new Lines();
+        log = new WorkerLog(failing, "req-2", WorkerLog.Level.INFO, 0);
+        log.info(null, () -> "first");
+        log.error(null, () -> "broke");
+        log.info(null, () -> "after");
+
+        // "after" is held again, waiting for the next WARN
+        assertEquals(2, failing.written.size());
+        assertTrue(failing.written.get(0).contains("\"message\":\"first\""));
+        assertTrue(failing.written.get(1).contains("\"message\":\"broke\""));
+    }
+
+    private static class Lines implements LambdaLogger {
+        final List<String> written = new ArrayList<>();
+
+        @Override
+        public void log(String message) {
+            written.add(message);
+        }
+
+        @Override
+        public void log(byte[] message) {
+            written.add(new String(message));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.kernel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class KernelTest {
+
+    @Test
+    public void scalarKernelsComputeTheWholeBatchAndRejectOnlyBadPayloads() {
+        String[] payloads = {"1", "not a number", "0"};
+
+        assertEquals(Arrays.asList("0.0", null, "-Infinity"), run(ScalarKernel.log(), payloads));
+        assertEquals(Arrays.asList("2.718281828459045", null, "1.0"), run(ScalarKernel.exp(), payloads));
+    }
+
+    @Test
+    public void statsKernelSummarizesEachPayload() {
+        List<String> results = run(new StatsKernel(), new String[]{"1, 2, 3", "5", "1,x", ""});
+
+        assertEquals(Arrays.asList(
+                "{\"count\":3,\"mean\":2.0,\"min\":1.0,\"max\":3.0,\"stddev\":0.816496580927726}",
+                "{\"count\":1,\"mean\":5.0,\"min\":5.0,\"max\":5.0,\"stddev\":0.0}",
+                null,
+                null
+        ), results);
+    }
+
+    @Test
+    public void slidingWindowKernelMatchesTheEndpoint() {
+        List<String> results = run(new SlidingWindowKernel(), new String[]{
+                "3:1,3,-1,-3,5,3,6,7", "10:1,2", "2:1,two", "1,2,3", "2:" + Long.MAX_VALUE + ",1"});
+
+        assertEquals(Arrays.asList("16", "0", null, null, null), results);
+    }
+
+    @Test
+    public void unknownOperationHasNoKernel() {
+        KernelRegistry registry = KernelRegistry.defaults();
+
+        assertNull(registry.get("sqrt"));
+        assertEquals(Arrays.asList("0.0"), run(registry.get(null), new String[]{"1"}));
+    }
+
+    private static List<String> run(Kernel kernel, String[] payloads) {
+        String[] results = new String[payloads.length];
+        kernel.compute(payloads, results, payloads.length);
+        return Arrays.asList(results);
+    }
+}
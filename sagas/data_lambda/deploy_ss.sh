@@ -7,7 +7,7 @@ set -euo pipefail
 # Inputs
 LAMBDA_FUNCTION_NAME="${1:-tf-poc-async-worker}"
 ALIAS_NAME="${2:-}"
-ZIP_FILE="${3:-target/plain_lambda.jar}"
+ZIP_FILE="${3:-target/data_lambda.jar}"
 AWS_REGION="${4:-us-east-2}"
 
 # Validate function name
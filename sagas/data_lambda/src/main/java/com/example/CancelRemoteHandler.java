@@ -0,0 +1,42 @@
+package com.example;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compensation for RemoteCallHandler: cancels on the partner's side once per execution. It cancels even without a
+ * CALL record, since the call may have reached the partner before its record was written.
+ */
+public class CancelRemoteHandler extends SagaStep {
+
+    static final String STEP = "CANCEL_CALL";
+
+    private final SagaLedger ledger;
+    private final RemoteApi remoteApi;
+
+    public CancelRemoteHandler() {
+        this(SagaClients.ledger(), RemoteApi.fromEnvironment());
+    }
+
+    CancelRemoteHandler(SagaLedger ledger, RemoteApi remoteApi) {
+        super(STEP);
+        this.ledger = ledger;
+        this.remoteApi = remoteApi;
+    }
+
+    @Override
+    SagaLedger.Outcome run(String executionId) {
+        if (ledger.steps(executionId).containsKey(STEP)) {
+            return SagaLedger.Outcome.ALREADY_DONE;
+        }
+
+        int status = remoteApi.cancel(executionId);
+        Map<String, AttributeValue> attributes = new HashMap<>();
+        attributes.put("status", SagaLedger.number(status));
+        attributes.put("compensatedAt", SagaLedger.number(Instant.now().toEpochMilli()));
+        return ledger.compensate(executionId, STEP, RemoteCallHandler.STEP, attributes);
+    }
+}
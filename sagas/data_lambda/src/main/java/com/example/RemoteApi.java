@@ -0,0 +1,72 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * The partner API the saga calls and cancels, over the JDK's HttpURLConnection (the same classes the DynamoDB
+ * client uses, so nothing more to load). Both requests carry the execution id as the Idempotency-Key header, so a
+ * retried call or cancel is a no-op on the remote side too. Only the remote steps load this class.
+ * <p>
+ * With no REMOTE_API_URL the calls are no-ops, so the saga still runs end to end without a partner.
+ */
+class RemoteApi {
+
+    private static final int TIMEOUT_MS = 2_000;
+
+    private final String baseUrl;
+
+    RemoteApi(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    static RemoteApi fromEnvironment() {
+        return new RemoteApi(System.getenv().getOrDefault("REMOTE_API_URL", ""));
+    }
+
+    boolean isConfigured() {
+        return !baseUrl.isEmpty();
+    }
+
+    /**
+     * @return the HTTP status, 0 if there is no remote configured
+     */
+    int call(String executionId) {
+        return post(baseUrl, executionId, false);
+    }
+
+    /**
+     * A 404 is fine: the call never reached the partner, so there is nothing to cancel.
+     *
+     * @return the HTTP status, 0 if there is no remote configured
+     */
+    int cancel(String executionId) {
+        return post(baseUrl + "/cancel", executionId, true);
+    }
+
+    private int post(String url, String executionId, boolean notFoundIsOk) {
+        if (!isConfigured()) {
+            return 0;
+        }
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setRequestProperty("Idempotency-Key", executionId);
+            connection.setDoOutput(true);
+            connection.getOutputStream().close();
+            int status = connection.getResponseCode();
+            connection.disconnect();
+            if (status / 100 != 2 && !(notFoundIsOk && status == HttpURLConnection.HTTP_NOT_FOUND)) {
+                // Let Step Functions retry it; the Idempotency-Key makes that safe
+                throw new IOException("Remote API answered " + status + " for " + url);
+            }
+            return status;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Saga step CallAPI: calls the partner API at most once per execution. A retry finds the CALL record and returns
+ * without calling again; a call that already has a CANCEL_CALL record isn't made at all.
+ */
+public class RemoteCallHandler extends SagaStep {
+
+    static final String STEP = "CALL";
+
+    private final SagaLedger ledger;
+    private final RemoteApi remoteApi;
+
+    public RemoteCallHandler() {
+        this(SagaClients.ledger(), RemoteApi.fromEnvironment());
+    }
+
+    RemoteCallHandler(SagaLedger ledger, RemoteApi remoteApi) {
+        super(STEP);
+        this.ledger = ledger;
+        this.remoteApi = remoteApi;
+    }
+
+    @Override
+    SagaLedger.Outcome run(String executionId) {
+        Map<String, Map<String, AttributeValue>> steps = ledger.steps(executionId);
+        if (steps.containsKey(CancelRemoteHandler.STEP)) {
+            return SagaLedger.Outcome.COMPENSATED;
+        }
+        if (steps.containsKey(STEP)) {
+            return SagaLedger.Outcome.ALREADY_DONE;
+        }
+
+        int status = remoteApi.call(executionId);
+        Map<String, AttributeValue> attributes = new HashMap<>();
+        attributes.put("status", SagaLedger.number(status));
+        attributes.put("calledAt", SagaLedger.number(Instant.now().toEpochMilli()));
+        return ledger.act(executionId, STEP, CancelRemoteHandler.STEP, attributes);
+    }
+}
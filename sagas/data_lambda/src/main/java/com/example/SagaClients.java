@@ -0,0 +1,56 @@
+package com.example;
+
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
+import org.crac.Core;
+import org.crac.Resource;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * The one DynamoDB client every saga step shares, built while the class initializes, which for a SnapStart
+ * function is before the snapshot. It uses the JDK's HttpURLConnection (no Apache or Netty), and the region is set
+ * so the SDK doesn't go looking for it. Before the checkpoint one ledger Query is made, so the snapshot already has
+ * the credentials, signer and marshallers loaded and the first invocation after a restore doesn't pay for them.
+ */
+final class SagaClients {
+
+    static final String TABLE_NAME = System.getenv().getOrDefault("SAGA_TABLE_NAME", "saga-ledger");
+
+    private static final DynamoDbClient DYNAMO_DB = DynamoDbClient.builder()
+            .region(Region.of(System.getenv().getOrDefault("AWS_REGION", "us-east-2")))
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+
+    private static final SagaLedger LEDGER = new SagaLedger(DYNAMO_DB, TABLE_NAME);
+
+    // CRaC only holds registered resources weakly
+    private static final Resource PRIMER = new Resource() {
+        @Override
+        public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+            try {
+                LEDGER.steps("prime");
+            } catch (SdkException e) {
+                // Priming is best effort, the first real invocation will surface any real problem
+                LambdaRuntime.getLogger().log("Could not prime the DynamoDB client: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void afterRestore(org.crac.Context<? extends Resource> context) {
+            // Nothing to do: connections from before the snapshot are dropped and reopened on first use
+        }
+    };
+
+    static {
+        Core.getGlobalContext().register(PRIMER);
+    }
+
+    private SagaClients() {
+    }
+
+    static SagaLedger ledger() {
+        return LEDGER;
+    }
+}
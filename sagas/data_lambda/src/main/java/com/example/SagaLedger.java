@@ -0,0 +1,151 @@
+package com.example;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One item per saga step that has happened, in the saga ledger table (hash key ExecutionId, range key Step). A step
+ * and its compensation are written so each runs at most once per execution, whatever Step Functions retries:
+ * <ul>
+ * <li>{@link #act} puts the step's item only if it isn't there yet and its compensation hasn't run, so an action
+ * retried after it was compensated does nothing.</li>
+ * <li>{@link #compensate} puts the compensation's item only if it isn't there yet and deletes the step's item, so
+ * it also works when the action never landed.</li>
+ * </ul>
+ */
+class SagaLedger {
+
+    static final String EXECUTION_ID = "ExecutionId";
+    static final String STEP = "Step";
+    private static final String NOT_EXISTS = "attribute_not_exists(" + EXECUTION_ID + ")";
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+
+    enum Outcome {
+        /** This call did it */
+        DONE,
+        /** An earlier call already did it */
+        ALREADY_DONE,
+        /** The action's compensation already ran, so the action was not done */
+        COMPENSATED
+    }
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    SagaLedger(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * @return every step recorded for the execution, by Step, from one consistent Query
+     */
+    Map<String, Map<String, AttributeValue>> steps(String executionId) {
+        Map<String, Map<String, AttributeValue>> steps = new HashMap<>();
+        for (Map<String, AttributeValue> item : dynamoDbClient.query(QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("#id = :id")
+                .expressionAttributeNames(Collections.singletonMap("#id", EXECUTION_ID))
+                .expressionAttributeValues(Collections.singletonMap(":id", string(executionId)))
+                .consistentRead(true)
+                .build()).items()) {
+            steps.put(item.get(STEP).s(), item);
+        }
+        return steps;
+    }
+
+    Outcome act(String executionId, String step, String compensation, Map<String, AttributeValue> attributes) {
+        Map<String, AttributeValue> item = new HashMap<>(attributes);
+        item.put(EXECUTION_ID, string(executionId));
+        item.put(STEP, string(step));
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                            TransactWriteItem.builder()
+                                    .conditionCheck(ConditionCheck.builder()
+                                            .tableName(tableName)
+                                            .key(key(executionId, compensation))
+                                            .conditionExpression(NOT_EXISTS)
+                                            .build())
+                                    .build(),
+                            TransactWriteItem.builder()
+                                    .put(Put.builder()
+                                            .tableName(tableName)
+                                            .item(item)
+                                            .conditionExpression(NOT_EXISTS)
+                                            .build())
+                                    .build())
+                    .build());
+            return Outcome.DONE;
+        } catch (TransactionCanceledException e) {
+            if (failedCondition(e, 0)) {
+                return Outcome.COMPENSATED;
+            }
+            if (failedCondition(e, 1)) {
+                return Outcome.ALREADY_DONE;
+            }
+            throw e;
+        }
+    }
+
+    Outcome compensate(String executionId, String compensation, String step, Map<String, AttributeValue> attributes) {
+        Map<String, AttributeValue> item = new HashMap<>(attributes);
+        item.put(EXECUTION_ID, string(executionId));
+        item.put(STEP, string(compensation));
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                            TransactWriteItem.builder()
+                                    .put(Put.builder()
+                                            .tableName(tableName)
+                                            .item(item)
+                                            .conditionExpression(NOT_EXISTS)
+                                            .build())
+                                    .build(),
+                            TransactWriteItem.builder()
+                                    .delete(Delete.builder()
+                                            .tableName(tableName)
+                                            .key(key(executionId, step))
+                                            .build())
+                                    .build())
+                    .build());
+            return Outcome.DONE;
+        } catch (TransactionCanceledException e) {
+            if (failedCondition(e, 0)) {
+                return Outcome.ALREADY_DONE;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean failedCondition(TransactionCanceledException e, int index) {
+        return e.hasCancellationReasons() && index < e.cancellationReasons().size()
+                && CONDITIONAL_CHECK_FAILED.equals(e.cancellationReasons().get(index).code());
+    }
+
+    private static Map<String, AttributeValue> key(String executionId, String step) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put(EXECUTION_ID, string(executionId));
+        key.put(STEP, string(step));
+        return key;
+    }
+
+    static AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    static AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
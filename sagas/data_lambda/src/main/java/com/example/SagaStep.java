@@ -0,0 +1,44 @@
+package com.example;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What the four saga handlers have in common. The state machine passes {"execution_id": ...} to every step, and
+ * that is the idempotency key for the step and its compensation. The reply is
+ * {"execution_id": ..., "step": ..., "outcome": DONE | ALREADY_DONE | COMPENSATED}.
+ * <p>
+ * Input and output are plain Maps, serialized by the Lambda runtime, so no JSON library is loaded here.
+ */
+public abstract class SagaStep implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    static final String EXECUTION_ID = "execution_id";
+
+    private final String step;
+
+    SagaStep(String step) {
+        this.step = step;
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        Object executionId = input == null ? null : input.get(EXECUTION_ID);
+        if (!(executionId instanceof String) || ((String) executionId).isEmpty()) {
+            throw new IllegalArgumentException("Missing " + EXECUTION_ID);
+        }
+
+        SagaLedger.Outcome outcome = run((String) executionId);
+        context.getLogger().log(step + " for " + executionId + ": " + outcome);
+
+        Map<String, Object> output = new HashMap<>();
+        output.put(EXECUTION_ID, executionId);
+        output.put("step", step);
+        output.put("outcome", outcome.name());
+        return output;
+    }
+
+    abstract SagaLedger.Outcome run(String executionId);
+}
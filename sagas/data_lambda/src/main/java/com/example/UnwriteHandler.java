@@ -0,0 +1,30 @@
+package com.example;
+
+import java.time.Instant;
+import java.util.Collections;
+
+/**
+ * Compensation for WriteHandler: removes the write and leaves a marker, so it runs once per execution and a late or
+ * retried write can't land afterwards.
+ */
+public class UnwriteHandler extends SagaStep {
+
+    static final String STEP = "UNWRITE";
+
+    private final SagaLedger ledger;
+
+    public UnwriteHandler() {
+        this(SagaClients.ledger());
+    }
+
+    UnwriteHandler(SagaLedger ledger) {
+        super(STEP);
+        this.ledger = ledger;
+    }
+
+    @Override
+    SagaLedger.Outcome run(String executionId) {
+        return ledger.compensate(executionId, STEP, WriteHandler.STEP,
+                Collections.singletonMap("compensatedAt", SagaLedger.number(Instant.now().toEpochMilli())));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example;
+
+import java.time.Instant;
+import java.util.Collections;
+
+/**
+ * Saga step WriteDB: records the write for this execution, once, and not at all if UnwriteHandler got there first.
+ */
+public class WriteHandler extends SagaStep {
+
+    static final String STEP = "WRITE";
+
+    private final SagaLedger ledger;
+
+    public WriteHandler() {
+        this(SagaClients.ledger());
+    }
+
+    WriteHandler(SagaLedger ledger) {
+        super(STEP);
+        this.ledger = ledger;
+    }
+
+    @Override
+    SagaLedger.Outcome run(String executionId) {
+        return ledger.act(executionId, STEP, UnwriteHandler.STEP,
+                Collections.singletonMap("writtenAt", SagaLedger.number(Instant.now().toEpochMilli())));
+    }
+}
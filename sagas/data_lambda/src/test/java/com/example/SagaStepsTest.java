@@ -0,0 +1,232 @@
+package com.example;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SagaStepsTest {
+
+    @Test
+    public void writeIsRecordedOnceWhateverTheRetries() {
+        FakeDynamo dynamo = new FakeDynamo();
+        WriteHandler write = new WriteHandler(new SagaLedger(dynamo, "saga"));
+
+        assertEquals("DONE", outcome(write, "exec-1"));
+        assertEquals("ALREADY_DONE", outcome(write, "exec-1"));
+        assertEquals(Collections.singleton("WRITE"), dynamo.steps("exec-1").keySet());
+    }
+
+    @Test
+    public void unwriteRemovesTheWriteOnceAndBlocksALateWrite() {
+        FakeDynamo dynamo = new FakeDynamo();
+        SagaLedger ledger = new SagaLedger(dynamo, "saga");
+        WriteHandler write = new WriteHandler(ledger);
+        UnwriteHandler unwrite = new UnwriteHandler(ledger);
+
+        outcome(write, "exec-1");
+        assertEquals("DONE", outcome(unwrite, "exec-1"));
+        assertEquals("ALREADY_DONE", outcome(unwrite, "exec-1"));
+        assertEquals(Collections.singleton("UNWRITE"), dynamo.steps("exec-1").keySet());
+
+        // Compensated before the write ever landed
+        assertEquals("DONE", outcome(unwrite, "exec-2"));
+        assertEquals("COMPENSATED", outcome(write, "exec-2"));
+        assertEquals(Collections.singleton("UNWRITE"), dynamo.steps("exec-2").keySet());
+    }
+
+    @Test
+    public void remoteIsCalledAndCancelledOnceEach() {
+        FakeDynamo dynamo = new FakeDynamo();
+        SagaLedger ledger = new SagaLedger(dynamo, "saga");
+        CountingRemote remote = new CountingRemote();
+        RemoteCallHandler call = new RemoteCallHandler(ledger, remote);
+        CancelRemoteHandler cancel = new CancelRemoteHandler(ledger, remote);
+
+        assertEquals("DONE", outcome(call, "exec-1"));
+        assertEquals("ALREADY_DONE", outcome(call, "exec-1"));
+        assertEquals("DONE", outcome(cancel, "exec-1"));
+        assertEquals("ALREADY_DONE", outcome(cancel, "exec-1"));
+        assertEquals("COMPENSATED", outcome(call, "exec-1"));
+
+        assertEquals(List.of("call exec-1", "cancel exec-1"), remote.requests);
+    }
+
+    @Test
+    public void missingExecutionIdIsRejected() {
+        WriteHandler write = new WriteHandler(new SagaLedger(new FakeDynamo(), "saga"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> write.handleRequest(Collections.emptyMap(), new TestContext()));
+    }
+
+    private static String outcome(SagaStep step, String executionId) {
+        Map<String, Object> output = step.handleRequest(
+                Collections.singletonMap(SagaStep.EXECUTION_ID, executionId), new TestContext());
+        assertEquals(executionId, output.get(SagaStep.EXECUTION_ID));
+        return (String) output.get("outcome");
+    }
+
+    private static class CountingRemote extends RemoteApi {
+        final List<String> requests = new ArrayList<>();
+
+        CountingRemote() {
+            super("https://partner.example");
+        }
+
+        @Override
+        int call(String executionId) {
+            requests.add("call " + executionId);
+            return 200;
+        }
+
+        @Override
+        int cancel(String executionId) {
+            requests.add("cancel " + executionId);
+            return 200;
+        }
+    }
+
+    /**
+     * The saga ledger table in a map, keyed by ExecutionId then Step, with the conditions of TransactWriteItems.
+     */
+    private static class FakeDynamo implements DynamoDbClient {
+        private final Map<String, Map<String, Map<String, AttributeValue>>> items = new HashMap<>();
+
+        Map<String, Map<String, AttributeValue>> steps(String executionId) {
+            return items.getOrDefault(executionId, Collections.emptyMap());
+        }
+
+        @Override
+        public QueryResponse query(QueryRequest request) {
+            String executionId = request.expressionAttributeValues().get(":id").s();
+            return QueryResponse.builder().items(new ArrayList<>(steps(executionId).values())).build();
+        }
+
+        @Override
+        public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+            List<CancellationReason> reasons = new ArrayList<>();
+            boolean rejected = false;
+            for (TransactWriteItem write : request.transactItems()) {
+                Map<String, AttributeValue> key = write.conditionCheck() != null ? write.conditionCheck().key()
+                        : write.put() != null ? write.put().item()
+                        : write.delete().key();
+                boolean conditional = write.delete() == null;
+                boolean failed = conditional && exists(key);
+                rejected |= failed;
+                reasons.add(CancellationReason.builder().code(failed ? "ConditionalCheckFailed" : "None").build());
+            }
+            if (rejected) {
+                throw TransactionCanceledException.builder().cancellationReasons(reasons).build();
+            }
+            for (TransactWriteItem write : request.transactItems()) {
+                if (write.put() != null) {
+                    Map<String, AttributeValue> item = write.put().item();
+                    items.computeIfAbsent(item.get("ExecutionId").s(), id -> new HashMap<>())
+                            .put(item.get("Step").s(), item);
+                } else if (write.delete() != null) {
+                    Map<String, AttributeValue> key = write.delete().key();
+                    items.getOrDefault(key.get("ExecutionId").s(), new HashMap<>()).remove(key.get("Step").s());
+                }
+            }
+            return TransactWriteItemsResponse.builder().build();
+        }
+
+        private boolean exists(Map<String, AttributeValue> key) {
+            return steps(key.get("ExecutionId").s()).containsKey(key.get("Step").s());
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class TestContext implements Context {
+        @Override
+        public String getAwsRequestId() {
+            return "test-request";
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return null;
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return null;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "test";
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return null;
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return null;
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return 0;
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return 0;
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                }
+
+                @Override
+                public void log(byte[] message) {
+                }
+            };
+        }
+    }
+}
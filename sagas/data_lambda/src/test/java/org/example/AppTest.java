@@ -1,13 +0,0 @@
-package org.example;
-
-import static org.junit.jupiter.api.Assertions.assertEquals;
-
-import org.junit.jupiter.api.Test;
-
-public class AppTest {
-
-    @Test
-    public void handleRequest_shouldReturnConstantValue() {
-
-    }
-}
@@ -7,6 +7,8 @@ import java.util.UUID;
 import java.util.function.Function;
 
 import example.models.SendRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
@@ -20,6 +22,9 @@ import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 @SpringBootApplication
 public class FunctionConfiguration {
 
+	private static final Logger log = LoggerFactory.getLogger(FunctionConfiguration.class);
+	private static final int MAX_LOGGED_CHARS = 64;
+
 	// private DynamoDbClient dynamoDbClient;
 	private String tableName;
 
@@ -48,16 +53,14 @@ public class FunctionConfiguration {
 //	}
 	@Bean
 	public Function<SendRequest, String> logFunction() {
-		System.out.println("Inside logFunction");
+		log.debug("Creating logFunction");
 		return (SendRequest req) -> {
 			// --- MANUALLY create DynamoDbClient ---
 			DynamoDbClient dynamoDbClient = DynamoDbClient.builder()
 					.region(Region.of(System.getenv().getOrDefault("AWS_REGION", "us-east-2")))
 					.build();
 			// Extract the payload, assuming it's a number for the logarithm calculation
-			System.out.println(Instant.now());
-			System.out.println(req);
-			System.out.println("Inside lambda returned by logFunction");
+			log.atDebug().addKeyValue("data", () -> truncate(req.data())).log("logFunction called");
 			double inputValue;
 			try {
 				inputValue = Double.parseDouble(req.data());
@@ -87,10 +90,19 @@ public class FunctionConfiguration {
 //					.build());
 
 			String sentence = "Logarithm of " + inputValue + " is " + result;
-			System.out.println("Inside logFunction");
-			System.out.println(sentence);
+			log.debug(sentence);
 			// Return the result (optional, depending on your use case)
 			return sentence;
 		};
 	}
+
+	/**
+	 * Payloads can be long and are the caller's data, only the head of one goes into a log line
+	 */
+	private static String truncate(String value) {
+		if (value == null || value.length() <= MAX_LOGGED_CHARS) {
+			return value;
+		}
+		return value.substring(0, MAX_LOGGED_CHARS) + "... (" + value.length() + " chars, truncated)";
+	}
 }
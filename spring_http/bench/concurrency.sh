@@ -0,0 +1,20 @@
+#!/usr/bin/env bash
+# Concurrency ceiling: hold N long polls open at once and see how many finish in one wait period.
+# Needs https://github.com/rakyll/hey and the app running locally with the worker stopped, so the message stays
+# PENDING and every GET /messages/{id}?wait=5 holds its request for the full 5 s.
+#
+#   ./mvnw -Pjava21 spring-boot:run                                              # platform threads
+#   SPRING_THREADS_VIRTUAL_ENABLED=true ./mvnw -Pjava21 spring-boot:run          # virtual threads
+#   bench/concurrency.sh 400
+set -euo pipefail
+
+CONCURRENCY=${1:-400}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+OWNER=bench
+
+LOCATION=$(curl -s -D - -o /dev/null -X POST "$BASE_URL/messages" \
+  -H 'Content-Type: application/json' \
+  -d "{\"ownerId\":\"$OWNER\",\"payload\":\"10\"}" | tr -d '\r' | awk -F': ' 'tolower($1)=="location" {print $2}')
+echo "Polling $LOCATION with $CONCURRENCY concurrent requests"
+
+hey -n "$CONCURRENCY" -c "$CONCURRENCY" -t 30 -H "X-Owner-Id: $OWNER" "$BASE_URL$LOCATION?wait=5"
@@ -1,6 +1,8 @@
 package com.example.interviews;
 
 
+import com.example.interviews.cache.ResultCacheConfig;
+import com.example.interviews.saga.SagaConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
@@ -12,7 +14,7 @@ import org.springframework.context.annotation.Import;
 // We use direct @Import instead of @ComponentScan to speed up cold starts
 @ComponentScan(basePackages = "com.example.interviews.controller")
 //@Import({ PingController.class, InterviewController.class, MessageController.class })
-@Import({WebSecurityConfig.class, AwsConfig.class})
+@Import({WebSecurityConfig.class, AwsConfig.class, ResultCacheConfig.class, SagaConfig.class})
 public class Application {
 
     public static void main(String[] args) {
@@ -1,16 +1,21 @@
 package com.example.interviews;
 
 // AwsConfig.java
+import com.example.interviews.priming.PrimingInterceptor;
+import com.example.interviews.sqs.BatchingSqsProducer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Lazy;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.sfn.SfnClient;
-import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 
 @Configuration
 public class AwsConfig {
@@ -18,20 +23,49 @@ public class AwsConfig {
     @Value("${aws.region:us-east-2}")
     private String region;
 
+    // Per client. With virtual threads there is no request thread limit any more, so this becomes the ceiling on
+    // concurrent AWS calls; the SDK default is 50.
+    @Value("${app.aws.max-connections:50}")
+    private int maxConnections;
+
+    // None of the clients are @Lazy: the controllers take them in their constructors, so they are built (and
+    // primed) once during init, which is before the SnapStart checkpoint.
+
     @Bean
-    @Lazy
-    public SqsClient sqsClient() {
-        return SqsClient.builder()
+    public SqsAsyncClient sqsAsyncClient() {
+        return SqsAsyncClient.builder()
                 .region(Region.of(region))
-                //.credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(asyncHttpClient())
+                .overrideConfiguration(primingAware())
+                .build();
+    }
+
+    @Bean
+    public BatchingSqsProducer batchingSqsProducer(
+            SqsAsyncClient sqsAsyncClient,
+            @Value("${app.sqs.queue-url}") String queueUrl,
+            @Value("${app.sqs.batch.window-ms:10}") long windowMillis,
+            @Value("${app.sqs.batch.max-size:10}") int maxBatchSize,
+            @Value("${app.sqs.batch.max-bytes:262144}") int maxBatchBytes
+    ) {
+        return new BatchingSqsProducer(sqsAsyncClient, queueUrl, windowMillis, maxBatchSize, maxBatchBytes);
+    }
+
+    @Bean
+    public DynamoDbAsyncClient dynamoDbAsyncClient() {
+        return DynamoDbAsyncClient.builder()
+                .region(Region.of(region))
+                .httpClientBuilder(asyncHttpClient())
+                .overrideConfiguration(primingAware())
                 .build();
     }
 
     @Bean
-    @Lazy
     public DynamoDbClient dynamoDbClient() {
         return DynamoDbClient.builder()
                 .region(Region.of(region))
+                .httpClientBuilder(syncHttpClient())
+                .overrideConfiguration(primingAware())
                 //.credentialsProvider(DefaultCredentialsProvider.create())
                 .build();
     }
@@ -40,6 +74,8 @@ public class AwsConfig {
     public SfnClient sfnClient() {
         return SfnClient.builder()
                 .region(Region.of(region))
+                .httpClientBuilder(syncHttpClient())
+                .overrideConfiguration(primingAware())
                 //.credentialsProvider(DefaultCredentialsProvider.create())
                 .build();
     }
@@ -48,7 +84,24 @@ public class AwsConfig {
     public CloudWatchLogsClient cloudWatchLogsClient() {
         return CloudWatchLogsClient.builder()
                 .region(Region.of(region))
+                .httpClientBuilder(syncHttpClient())
+                .overrideConfiguration(primingAware())
                 // .credentialsProvider(DefaultCredentialsProvider.create())
                 .build();
     }
+
+    private ApacheHttpClient.Builder syncHttpClient() {
+        return ApacheHttpClient.builder().maxConnections(maxConnections);
+    }
+
+    private AwsCrtAsyncHttpClient.Builder asyncHttpClient() {
+        return AwsCrtAsyncHttpClient.builder().maxConcurrency(maxConnections);
+    }
+
+    // Lets the SnapStart priming requests run through the clients without anything leaving the box
+    private static ClientOverrideConfiguration primingAware() {
+        return ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(PrimingInterceptor.INSTANCE)
+                .build();
+    }
 }
@@ -0,0 +1,70 @@
+package com.example.interviews;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Passes the stream through untouched while keeping a copy of only the first maxBytes read, so a request can be
+ * logged without buffering the whole payload a second time.
+ */
+public class CappedTeeInputStream extends FilterInputStream {
+
+    private final byte[] captured;
+    private int capturedLength;
+    private long totalBytes;
+
+    public CappedTeeInputStream(InputStream in, int maxBytes) {
+        super(in);
+        this.captured = new byte[Math.max(0, maxBytes)];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            if (capturedLength < captured.length) {
+                captured[capturedLength++] = (byte) b;
+            }
+            totalBytes++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            int toCapture = Math.min(read, captured.length - capturedLength);
+            if (toCapture > 0) {
+                System.arraycopy(buffer, offset, captured, capturedLength, toCapture);
+                capturedLength += toCapture;
+            }
+            totalBytes += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipped bytes are neither captured nor counted, they never reached the reader
+        return super.skip(n);
+    }
+
+    @Override
+    public boolean markSupported() {
+        // A reset would make us capture the same bytes twice
+        return false;
+    }
+
+    /**
+     * What was read so far, cut at maxBytes (a multi-byte character on the cut may come out garbled).
+     */
+    public String captured() {
+        String head = new String(captured, 0, capturedLength, StandardCharsets.UTF_8);
+        return totalBytes > capturedLength
+                ? head + "... (" + totalBytes + " bytes, truncated)"
+                : head;
+    }
+}
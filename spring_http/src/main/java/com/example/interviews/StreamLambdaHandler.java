@@ -2,6 +2,9 @@ package com.example.interviews;
 
 
 import com.amazonaws.serverless.proxy.internal.LambdaContainerHandler;
+import com.example.interviews.priming.PrimingInterceptor;
+import com.example.interviews.priming.PrimingLambdaContext;
+import com.example.interviews.priming.RequestPrimer;
 import com.amazonaws.serverless.proxy.model.HttpApiV2ProxyRequest;
 import org.crac.Resource;
 import org.crac.Core;
@@ -12,15 +15,28 @@ import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
 import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.broker.LogValues;
+import com.example.interviews.logging.SamplingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 
 
 public class StreamLambdaHandler implements RequestStreamHandler, Resource {
+    private static final Logger log = LoggerFactory.getLogger(StreamLambdaHandler.class);
+    private static final double LOG_SAMPLE_RATE =
+            Double.parseDouble(System.getenv().getOrDefault("LOG_REQUEST_SAMPLE_RATE", "0"));
+    private static final int LOG_MAX_BYTES =
+            Integer.parseInt(System.getenv().getOrDefault("LOG_REQUEST_MAX_BYTES", "1024"));
+    // How many times each route is hit before the SnapStart checkpoint, a few rounds gets the hot paths past the
+    // interpreter
+    private static final int PRIME_ITERATIONS =
+            Integer.parseInt(System.getenv().getOrDefault("PRIME_ITERATIONS", "3"));
+
     private static SpringBootLambdaContainerHandler<HttpApiV2ProxyRequest, AwsProxyResponse> handler;
     static {
         try {
@@ -37,36 +53,68 @@ public class StreamLambdaHandler implements RequestStreamHandler, Resource {
         }
     }
 
+    public StreamLambdaHandler() {
+        // Without this the checkpoint hooks below never run. Lambda keeps this one instance for the life of the
+        // container, which keeps CRaC's reference to it alive.
+        Core.getGlobalContext().register(this);
+    }
+
 //    @Override
 //    public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
 //            throws IOException {
 //        handler.proxyStream(inputStream, outputStream, context);
 //    }
 
+    /**
+     * The event goes to the container handler as-is. Every line logged while it runs carries the awsRequestId (MDC),
+     * which is also what log sampling goes by. A sampled fraction of requests (LOG_REQUEST_SAMPLE_RATE, 0 to 1,
+     * default 0) is logged, cut at LOG_REQUEST_MAX_BYTES, from a copy taken while the container reads the stream.
+     * That fraction is picked by the same awsRequestId hash as the log lines, so as long as it is no higher than
+     * LOG_SAMPLE_RATE a logged request also keeps all of its lines.
+     */
     @Override
     public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
             throws IOException {
+        MDC.put(SamplingFilter.CORRELATION_KEY, context.getAwsRequestId());
+        try {
+            if (!LogValues.isSampled(context.getAwsRequestId(), LOG_SAMPLE_RATE)) {
+                handler.proxyStream(inputStream, outputStream, context);
+                return;
+            }
 
-        // Read all input into a byte array
-        byte[] inputBytes = inputStream.readAllBytes();
-
-        // Log the input (convert to String if appropriate, like assuming UTF-8)
-        String inputString = new String(inputBytes, StandardCharsets.UTF_8);
-        context.getLogger().log("Received input: " + inputString);
-
-        // Pass a new InputStream based on the bytes to handler
-        InputStream newInputStream = new ByteArrayInputStream(inputBytes);
-
-        handler.proxyStream(newInputStream, outputStream, context);
+            CappedTeeInputStream tee = new CappedTeeInputStream(inputStream, LOG_MAX_BYTES);
+            try {
+                handler.proxyStream(tee, outputStream, context);
+            } finally {
+                log.atInfo().addKeyValue("input", tee::captured).log("Received input");
+            }
+        } finally {
+            MDC.remove(SamplingFilter.CORRELATION_KEY);
+        }
     }
 
+    /**
+     * Runs every route through the container with the AWS clients stubbed, so the first request after restore
+     * finds everything loaded and initialized. Errors from the stubbed routes are expected and only logged.
+     */
     @Override
     public void beforeCheckpoint(org.crac.Context<? extends Resource> context) throws Exception {
-        System.out.println("Before Checkpoint");
+        log.info("Before checkpoint");
+        long start = System.nanoTime();
+        PrimingLambdaContext primingContext = new PrimingLambdaContext();
+        RequestPrimer primer = new RequestPrimer(
+                (event, response) -> handler.proxyStream(event, response, primingContext), PRIME_ITERATIONS);
+        int[] primed = new int[1];
+        PrimingInterceptor.stubbed(() -> primed[0] = primer.prime(RequestPrimer.routes()));
+        log.info("Primed {} requests in {} ms", primed[0], (System.nanoTime() - start) / 1_000_000);
     }
 
+    /**
+     * Connections and credentials are re-established by the resources that own the clients (MessageController
+     * re-primes its clients after restore).
+     */
     @Override
     public void afterRestore(org.crac.Context<? extends Resource> context) throws Exception {
-        System.out.println("After Restore");
+        log.info("After restore");
     }
 }
\ No newline at end of file
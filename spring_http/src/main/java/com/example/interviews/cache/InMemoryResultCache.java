@@ -0,0 +1,67 @@
+package com.example.interviews.cache;
+
+import com.example.interviews.models.CacheStats;
+import com.example.interviews.models.CachedResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * LRU map with a per-entry TTL. Lives as long as the Lambda container does, which is free caching.
+ */
+public class InMemoryResultCache implements ResultCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final Map<String, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public InMemoryResultCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        // access order, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > InMemoryResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<CachedResult> get(String messageId) {
+        Entry entry = entries.get(messageId);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(messageId);
+            evictions++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.result);
+    }
+
+    @Override
+    public synchronized void put(String messageId, CachedResult result) {
+        entries.put(messageId, new Entry(result, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size());
+    }
+
+    private record Entry(CachedResult result, long expiresAt) { }
+}
@@ -0,0 +1,19 @@
+package com.example.interviews.cache;
+
+import com.example.interviews.models.CacheStats;
+import com.example.interviews.models.CachedResult;
+
+import java.util.Optional;
+
+/**
+ * Holds the final status response of settled messages, so a repeated GET /messages/{id} is answered without
+ * DynamoDB, and still answered after the records have been deleted.
+ */
+public interface ResultCache {
+
+    Optional<CachedResult> get(String messageId);
+
+    void put(String messageId, CachedResult result);
+
+    CacheStats stats();
+}
@@ -0,0 +1,36 @@
+package com.example.interviews.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.JedisPooled;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ResultCacheConfig {
+
+    @Value("${app.cache.results.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${app.cache.results.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Leave empty to keep the cache in-process only
+    @Value("${app.cache.valkey.host:}")
+    private String valkeyHost;
+
+    @Value("${app.cache.valkey.port:6379}")
+    private int valkeyPort;
+
+    @Bean
+    public ResultCache resultCache(ObjectMapper objectMapper) {
+        InMemoryResultCache local = new InMemoryResultCache(maxEntries, TimeUnit.SECONDS.toMillis(ttlSeconds));
+        if (valkeyHost.isEmpty()) {
+            return local;
+        }
+        // Only touches the Jedis classes when Valkey is configured
+        return new ValkeyResultCache(local, new JedisPooled(valkeyHost, valkeyPort), objectMapper, ttlSeconds);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.interviews.cache;
+
+import com.example.interviews.models.CacheStats;
+import com.example.interviews.models.CachedResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Valkey (see dbs_on_ec2/install_valkey.sh) behind an {@link InMemoryResultCache}, so a result collected by one
+ * Lambda container can be served by another. Valkey being down only costs a cache miss.
+ */
+public class ValkeyResultCache implements ResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ValkeyResultCache.class);
+    private static final String KEY_PREFIX = "message-result:";
+
+    private final InMemoryResultCache local;
+    private final JedisPooled valkey;
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+
+    private final AtomicLong remoteHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ValkeyResultCache(InMemoryResultCache local, JedisPooled valkey, ObjectMapper objectMapper, long ttlSeconds) {
+        this.local = local;
+        this.valkey = valkey;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    @Override
+    public Optional<CachedResult> get(String messageId) {
+        Optional<CachedResult> cached = local.get(messageId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        try {
+            String json = valkey.get(KEY_PREFIX + messageId);
+            if (json != null) {
+                CachedResult result = objectMapper.readValue(json, CachedResult.class);
+                local.put(messageId, result);
+                remoteHits.incrementAndGet();
+                return Optional.of(result);
+            }
+        } catch (JedisException | JsonProcessingException e) {
+            log.atWarn().addKeyValue("messageId", messageId).log("Valkey read failed: {}", e.getMessage());
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(String messageId, CachedResult result) {
+        local.put(messageId, result);
+        try {
+            valkey.setex(KEY_PREFIX + messageId, ttlSeconds, objectMapper.writeValueAsString(result));
+        } catch (JedisException | JsonProcessingException e) {
+            log.atWarn().addKeyValue("messageId", messageId).log("Valkey write failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        CacheStats near = local.stats();
+        return new CacheStats(near.hits() + remoteHits.get(), misses.get(), near.evictions(), near.size());
+    }
+}
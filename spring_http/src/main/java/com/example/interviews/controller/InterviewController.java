@@ -1,12 +1,24 @@
 package com.example.interviews.controller;
 
 
+import com.example.interviews.window.LongSeries;
+import com.example.interviews.window.SeriesParser;
+import com.example.interviews.window.SlidingWindow;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,34 +27,119 @@ import java.util.Map;
 @RequestMapping("/api")
 public class InterviewController {
 
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * numbers is read as one comma separated string (repeated numbers params are joined with commas by Spring) and
+     * parsed straight into a long[], no List&lt;Integer&gt;.
+     */
     @GetMapping("/sliding-window")
-    public Map<String, Integer> getMaxSlidingWindowSum(
-            @RequestParam List<Integer> numbers,
-            @RequestParam int windowSize) {
+    public Map<String, Object> getMaxSlidingWindowSum(
+            @RequestParam String numbers,
+            @RequestParam int windowSize,
+            @RequestParam(required = false) List<String> aggregates) {
 
-        int maxSum = calculateMaxSumOfSlidingWindow(numbers, windowSize);
-        return Collections.singletonMap("maxSum", maxSum);
+        return slidingWindow(parse(() -> SeriesParser.parseCsv(numbers)), windowSize, aggregates);
     }
 
-    private int calculateMaxSumOfSlidingWindow(List<Integer> numbers, int windowSize) {
-        if (numbers == null || numbers.size() < windowSize || windowSize <= 0) {
-            return 0;
-        }
+    /**
+     * Same as the GET, for series too long for a query string: the body is a JSON array of integers.
+     */
+    @PostMapping(path = "/sliding-window", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, Object> slidingWindowJson(
+            InputStream body,
+            @RequestParam int windowSize,
+            @RequestParam(required = false) List<String> aggregates) {
+
+        return slidingWindow(parse(() -> SeriesParser.parseJsonArray(body, jsonFactory)), windowSize, aggregates);
+    }
+
+    /**
+     * The body is integers separated by commas or whitespace.
+     */
+    @PostMapping(path = "/sliding-window", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public Map<String, Object> slidingWindowText(
+            InputStream body,
+            @RequestParam int windowSize,
+            @RequestParam(required = false) List<String> aggregates) {
 
-        int currentWindowSum = 0;
-        for (int index = 0; index < windowSize; index++) {
-            currentWindowSum += numbers.get(index);
+        return slidingWindow(parse(() -> SeriesParser.parseCsv(body)), windowSize, aggregates);
+    }
+
+    /**
+     * For bulk callers: the body is the raw values, little-endian, elementType int32 (default) or int64. About a
+     * third of the bytes of the text form and no parsing. Through API Gateway the body arrives base64 encoded and
+     * the container decodes it before it gets here.
+     */
+    @PostMapping(path = "/sliding-window", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Map<String, Object> slidingWindowBinary(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            @RequestParam int windowSize,
+            @RequestParam(defaultValue = "int32") String elementType,
+            @RequestParam(required = false) List<String> aggregates) {
+
+        int bytesPerValue = switch (elementType) {
+            case "int32" -> Integer.BYTES;
+            case "int64" -> Long.BYTES;
+            default -> throw new InvalidSeriesException("Unknown elementType " + elementType
+                    + ", expected int32 or int64");
+        };
+        long length = contentLength == null ? -1 : contentLength;
+        return slidingWindow(parse(() -> SeriesParser.parseLittleEndian(body, length, bytesPerValue)),
+                windowSize, aggregates);
+    }
+
+    /**
+     * Always has maxSum (0 when the window doesn't fit). aggregates adds per-window arrays: sums, averages, min, max.
+     */
+    private Map<String, Object> slidingWindow(LongSeries series, int windowSize, List<String> aggregates) {
+        long[] values = series.values();
+        int n = series.size();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!SlidingWindow.isValid(n, windowSize)) {
+            result.put("maxSum", 0L);
+            return result;
         }
 
-        int maxWindowSum = currentWindowSum;
+        try {
+            result.put("maxSum", SlidingWindow.maxSum(values, n, windowSize));
+            if (aggregates != null) {
+                for (String aggregate : aggregates) {
+                    result.put(aggregate, switch (aggregate) {
+                        case "sums" -> SlidingWindow.sums(values, n, windowSize);
+                        case "averages" -> SlidingWindow.averages(values, n, windowSize);
+                        case "min" -> SlidingWindow.minima(values, n, windowSize);
+                        case "max" -> SlidingWindow.maxima(values, n, windowSize);
+                        default -> throw new InvalidSeriesException("Unknown aggregate " + aggregate
+                                + ", expected sums, averages, min or max");
+                    });
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new InvalidSeriesException("Window sum does not fit in a long");
+        }
+        return result;
+    }
 
-        for (int windowEndIndex = windowSize; windowEndIndex < numbers.size(); windowEndIndex++) {
-            int windowStartIndex = windowEndIndex - windowSize;
-            currentWindowSum += numbers.get(windowEndIndex);
-            currentWindowSum -= numbers.get(windowStartIndex);
-            maxWindowSum = Math.max(maxWindowSum, currentWindowSum);
+    private static LongSeries parse(SeriesSource source) {
+        try {
+            return source.read();
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidSeriesException(e.getMessage());
         }
+    }
+
+    @FunctionalInterface
+    private interface SeriesSource {
+        LongSeries read() throws IOException;
+    }
 
-        return maxWindowSum;
+    @ResponseStatus(code = HttpStatus.BAD_REQUEST)
+    public static class InvalidSeriesException extends RuntimeException {
+        public InvalidSeriesException(String msg) {
+            super(msg);
+        }
     }
 }
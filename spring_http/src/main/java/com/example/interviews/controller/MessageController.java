@@ -1,196 +1,294 @@
 package com.example.interviews.controller;
 
+import com.example.broker.BrokerItems;
+import com.example.broker.CancelledRecord;
+import com.example.broker.LogValues;
+import com.example.broker.MessageRecords;
+import com.example.broker.RecordType;
+import com.example.broker.RequestRecord;
+import com.example.broker.ResultRecord;
+import com.example.interviews.cache.ResultCache;
+import com.example.interviews.models.CacheStats;
+import com.example.interviews.models.CachedResult;
 import com.example.interviews.models.PendingRequest;
 import com.example.interviews.models.SendRequest;
+import com.example.interviews.sqs.BatchingSqsProducer;
+import jakarta.annotation.PostConstruct;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
-import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
-import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/messages")
-public class MessageController {
+public class MessageController implements Resource {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageController.class);
 
     private static final int RETRY_AFTER_SECONDS = 5;
+    private static final long MIN_POLL_INTERVAL_MS = 100;
+    private static final long MAX_POLL_INTERVAL_MS = 2_000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Sparse GSI on ownerId + createdAt. Only REQUEST records carry createdAt, so only they are indexed.
+     */
+    public static final String OWNER_INDEX = "ownerId-createdAt-index";
+
+    /**
+     * What status needs from a REQUEST: only who owns it, never its payload. Names go through placeholders so none
+     * of them can collide with a DynamoDB reserved word.
+     */
+    private static final String REQUEST_PROJECTION = "#owner";
+    private static final Map<String, String> REQUEST_ATTRIBUTE_NAMES = Map.of("#owner", BrokerItems.OWNER_ID);
 
-    private SqsClient sqs;
-    private DynamoDbClient dynamo;
-    private final String queueUrl;
+    /**
+     * What status needs from RESULT and CANCELLED records
+     */
+    private static final String OUTCOME_PROJECTION = "#mid, #type, #owner, #payload, #error, #completed";
+    private static final Map<String, String> OUTCOME_ATTRIBUTE_NAMES = Map.of(
+            "#mid", BrokerItems.MESSAGE_ID,
+            "#type", BrokerItems.RECORD_TYPE,
+            "#owner", BrokerItems.OWNER_ID,
+            "#payload", BrokerItems.PAYLOAD,
+            "#error", BrokerItems.ERROR,
+            "#completed", BrokerItems.COMPLETED_AT
+    );
+    private static final int MAX_OUTCOME_READ_ATTEMPTS = 3;
+    // Unprocessed keys mean the table is throttling, so give it a moment before asking again
+    private static final long UNPROCESSED_RETRY_MS = 25;
+
+    private final BatchingSqsProducer sqs;
+    private final DynamoDbClient dynamo;
+    private final DynamoDbAsyncClient dynamoAsync;
+    private final ResultCache resultCache;
     private final String tableName;
-    private final String region;
+    private final boolean primeOnStartup;
+    private final int maxWaitSeconds;
+    private final boolean consistentReads;
 
     public MessageController(
-            @Value("${app.sqs.queue-url}") String queueUrl,
+            BatchingSqsProducer sqs,
+            DynamoDbClient dynamo,
+            DynamoDbAsyncClient dynamoAsync,
+            ResultCache resultCache,
             @Value("${app.dynamo.table-name}") String tableName,
-            @Value("${aws.region:us-east-2}") String region
+            @Value("${app.aws.prime-clients:true}") boolean primeOnStartup,
+            @Value("${app.messages.max-wait-seconds:20}") int maxWaitSeconds,
+            @Value("${app.messages.consistent-reads:false}") boolean consistentReads
     ) {
-        System.out.println("MessageController constructor running");
-        this.region = region;
-        this.queueUrl = queueUrl;
+        this.sqs = sqs;
+        this.dynamo = dynamo;
+        this.dynamoAsync = dynamoAsync;
+        this.resultCache = resultCache;
         this.tableName = tableName;
+        this.primeOnStartup = primeOnStartup;
+        this.maxWaitSeconds = maxWaitSeconds;
+        this.consistentReads = consistentReads;
+        Core.getGlobalContext().register(this);
+    }
+
+    /**
+     * Make one cheap call per client while the container is initializing (and so before the SnapStart
+     * checkpoint), so the credential chain, marshallers and connection pool are ready before the first request.
+     */
+    @PostConstruct
+    void primeClients() {
+        if (!primeOnStartup) {
+            return;
+        }
+        try {
+            DescribeTableRequest describeTable = DescribeTableRequest.builder()
+                    .tableName(tableName)
+                    .build();
+            dynamo.describeTable(describeTable);
+            CompletableFuture.allOf(
+                    dynamoAsync.describeTable(describeTable),
+                    sqs.prime()
+            ).join();
+        } catch (SdkException | CompletionException e) {
+            // Priming is best effort, the first real request will surface any real problem
+            log.warn("Could not prime AWS clients: {}", e.getMessage());
+        }
     }
 
-    private void create_clients() {
-        System.out.println("Creating Sqs Client");
-//        this.sqs = SqsClient.builder()
-//                .region(Region.of(this.region))
-//                // .credentialsProvider(DefaultCredentialsProvider.create())
-//                .build();
-
-        this.sqs = SqsClient.builder()
-//                .credentialsProvider(SdkSystemSetting.AWS_CONTAINER_CREDENTIALS_FULL_URI
-//                        .getStringValue()
-//                        .isPresent()
-//                        ? ContainerCredentialsProvider.builder().build()
-//                        : EnvironmentVariableCredentialsProvider.create())
-                .region(Region.of(this.region))
-                .build();
-        System.out.println("Creating DynmoDB Client");
-//        this.dynamo = DynamoDbClient.builder()
-//                .region(Region.of(this.region))
-//                // .credentialsProvider(DefaultCredentialsProvider.create())
-//                .build();
-        // SdkSystemSetting.AWS_REGION.getStringValueOrThrow()
-        this.dynamo = DynamoDbClient.builder()
-//                .credentialsProvider(SdkSystemSetting.AWS_CONTAINER_CREDENTIALS_FULL_URI
-//                        .getStringValue()
-//                        .isPresent()
-//                        ? ContainerCredentialsProvider.builder().build()
-//                        : EnvironmentVariableCredentialsProvider.create())
-                .region(Region.of(this.region))
-                .build();
-        System.out.println("Done creating Clients");
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+        // Requests are primed by StreamLambdaHandler, nothing held here needs flushing
     }
 
     /**
-     * 1) Send a message
+     * Sockets from before the snapshot are gone and credentials may have moved on, so open fresh connections
+     * before the first request needs them.
+     */
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        primeClients();
+    }
+
+    /**
+     * 1) Send a message. The MessageId is made here, so the REQUEST put and the SQS send go out together and the
+     * 202 waits for both; the servlet thread is released while they are in flight. The worker may answer before the
+     * REQUEST lands, which is fine: its RESULT carries the owner, so status doesn't need the REQUEST to be there.
      */
     @PostMapping
-    public ResponseEntity<Void> send(@RequestBody SendRequest req) {
-//        if (!req.ownerId().equals("matt")) {
-//            System.out.println("Wrong owner: " + req.ownerId());
-//            System.out.println(req);
-//
-//            URI location = URI.create("/nowhere/");
-//            return ResponseEntity
-//                    .accepted()
-//                    .location(location)
-//                    .build();
-//        }
-
-        System.out.println("Sending request: " + req);
-        create_clients();
+    public CompletableFuture<ResponseEntity<Void>> send(@RequestBody SendRequest req) {
         String messageId = UUID.randomUUID().toString();
         long now = Instant.now().toEpochMilli();
-
-
-        SendMessageResponse response = sqs.sendMessage(SendMessageRequest.builder()
-                .queueUrl(queueUrl)
-                .messageBody(req.payload())
-                .messageAttributes(Map.of(
-                        "MessageId", MessageAttributeValue.builder()
-                                .dataType("String")
-                                .stringValue(messageId)
-                                .build(),
-                        "OwnerId", MessageAttributeValue.builder()
-                                .dataType("String")
-                                .stringValue(req.ownerId())
-                                .build(),
-                        "Payload", MessageAttributeValue.builder()
-                                .dataType("String")
-                                .stringValue(req.payload())
-                                .build()
-                ))
+        log.atInfo()
+                .addKeyValue("messageId", messageId)
+                .addKeyValue("ownerId", () -> LogValues.mask(req.ownerId()))
+                .addKeyValue("operation", req.operation())
+                .addKeyValue("payload", () -> LogValues.truncate(req.payload()))
+                .log("Sending request");
+
+
+        Map<String, MessageAttributeValue> attributes = new HashMap<>();
+        attributes.put("MessageId", MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue(messageId)
                 .build());
+        attributes.put("OwnerId", MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue(req.ownerId())
+                .build());
+        attributes.put("Payload", MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue(req.payload())
+                .build());
+        if (req.operation() != null) {
+            // The worker groups its batch by this and runs each group through one kernel; absent means log
+            attributes.put("Operation", MessageAttributeValue.builder()
+                    .dataType("String")
+                    .stringValue(req.operation())
+                    .build());
+        }
 
-        Map<String, AttributeValue> requestItem = Map.of(
-                "MessageId", AttributeValue.builder().s(response.messageId()).build(),
-                "RecordType", AttributeValue.builder().s("REQUEST").build(),
-                "ownerId", AttributeValue.builder().s(req.ownerId()).build(),
-                "payload", AttributeValue.builder().s(req.payload()).build(),
-                "createdAt", AttributeValue.builder().n(Long.toString(now)).build()
-        );
-
-
-        dynamo.putItem(PutItemRequest.builder()
+        URI location = URI.create("/messages/" + messageId);
+        CompletableFuture<PutItemResponse> recorded = dynamoAsync.putItem(PutItemRequest.builder()
                 .tableName(tableName)
-                .item(requestItem)
+                .item(BrokerItems.encode(new RequestRecord(messageId, req.ownerId(), req.payload(), now)))
                 .build());
+        // Goes out in a SendMessageBatch with whatever other sends are waiting, or on its own if there are none
+        CompletableFuture<String> enqueued = sqs.send(req.payload(), attributes);
+        return CompletableFuture.allOf(recorded, enqueued)
+                .exceptionallyCompose(error -> undoHalfSend(messageId, recorded, enqueued)
+                        .thenCompose(undone -> CompletableFuture.<Void>failedFuture(error)))
+                .thenApply(sent -> ResponseEntity.accepted().location(location).<Void>build());
+    }
 
-        URI location = URI.create("/messages/" + response.messageId());
-        return ResponseEntity
-                .accepted()
-                .location(location)
-                .build();
+    /**
+     * Tidy up after a send where only one of the two writes went through. A REQUEST with nothing queued would stay
+     * PENDING forever, so it is deleted. A queued message can't be taken back, so one without its REQUEST is only
+     * logged; the client got an error and never learns its MessageId.
+     */
+    private CompletableFuture<Void> undoHalfSend(
+            String messageId, CompletableFuture<?> recorded, CompletableFuture<?> enqueued) {
+        if (recorded.isCompletedExceptionally() && !enqueued.isCompletedExceptionally()) {
+            log.atWarn().addKeyValue("messageId", messageId).log("Queued a message whose REQUEST was not stored");
+        }
+        if (!enqueued.isCompletedExceptionally() || recorded.isCompletedExceptionally()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return dynamoAsync.deleteItem(DeleteItemRequest.builder()
+                        .tableName(tableName)
+                        .key(BrokerItems.key(messageId, RecordType.REQUEST))
+                        .build())
+                .handle((deleted, error) -> {
+                    if (error != null) {
+                        log.atError()
+                                .addKeyValue("messageId", messageId)
+                                .log("Could not delete the REQUEST of a message that was never queued: {}",
+                                        error.getMessage());
+                    }
+                    return null;
+                });
     }
 
     /**
-     * 2) Poll status (or get final result)
+     * 2) Poll status (or get final result). With ?wait=N the request is held for up to N seconds (capped by
+     * app.messages.max-wait-seconds) and re-checks DynamoDB with a growing backoff, so it answers as soon as the
+     * RESULT or CANCELLED record lands instead of the client polling every RETRY_AFTER_SECONDS.
      */
     @GetMapping("/{id}")
     public ResponseEntity<Object> status(
             @PathVariable String id,
-            @RequestHeader(value = "X-Owner-Id", required = true) String ownerId
+            @RequestHeader(value = "X-Owner-Id", required = true) String ownerId,
+            @RequestParam(defaultValue = "0") int wait
     ) {
-        System.out.println("Retrieving status: " + id);
-        create_clients();
-        System.out.println("About to do query");
-        QueryResponse qr = dynamo.query(QueryRequest.builder()
-                .tableName(tableName)
-                .keyConditionExpression("MessageId = :mid")
-                .expressionAttributeValues(Map.of(
-                        ":mid", AttributeValue.builder().s(id).build()
-                ))
-                .build());
-
-        System.out.println("About to iterate and find first");
-        Map<String, AttributeValue> requestItem = qr.items().stream()
-                .filter(item -> "REQUEST".equals(item.get("RecordType").s()))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("No such request"));
+        log.atDebug().addKeyValue("messageId", id).addKeyValue("wait", wait).log("Retrieving status");
+        Optional<CachedResult> cached = resultCache.get(id);
+        if (cached.isPresent()) {
+            // Already collected (and maybe already deleted), answer the same way again
+            if (!ownerId.equals(cached.get().ownerId())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity
+                    .ok()
+                    .header("Content-Location", "/messages/" + id)
+                    .body(cached.get().body());
+        }
 
-        System.out.println("Time to check owner Id");
-        System.out.println("Incoming header ownerId=" + ownerId);
-        System.out.println("DynamoDB item ownerId=" + requestItem.get("ownerId"));
+        MessageRecords records = readMessage(id);
 
-        AttributeValue stored = requestItem.get("ownerId");
-        if (stored == null || !ownerId.equals(stored.s())) {
+        if (records.request() == null) {
+            throw new ResourceNotFoundException("No such request");
+        }
+        if (!ownerId.equals(records.request().ownerId())) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        System.out.println("Time to check if cancelled");
-        boolean isCancelled = qr.items().stream()
-                .anyMatch(item -> "CANCELLED".equals(item.get("RecordType").s()));
-        if (isCancelled) {
-            batchDelete(id, List.of("REQUEST", "CANCELLED"));
-            Map<String, String> body = Map.of("status", "CANCELLED");
+        long waitMillis = TimeUnit.SECONDS.toMillis(Math.max(0, Math.min(wait, maxWaitSeconds)));
+        if (waitMillis > 0) {
+            records = awaitOutcome(id, records, waitMillis);
+            if (records == null) {
+                return resultCache.get(id)
+                        .<ResponseEntity<Object>>map(hit -> ResponseEntity
+                                .ok()
+                                .header("Content-Location", "/messages/" + id)
+                                .body(hit.body()))
+                        .orElseThrow(() -> new ResourceNotFoundException("No such request"));
+            }
+        }
+
+        if (records.cancelled() != null) {
+            Map<String, Object> body = Map.of("status", "CANCELLED");
+            resultCache.put(id, new CachedResult(ownerId, body));
+            batchDelete(id, List.of(RecordType.REQUEST, RecordType.CANCELLED));
             return ResponseEntity
                     .ok()
                     .header("Content-Location", "/messages/" + id)
                     .body(body);
         }
 
-        Optional<Map<String, AttributeValue>> resultOpt = qr.items().stream()
-                .filter(item -> "RESULT".equals(item.get("RecordType").s()))
-                .findFirst();
-
-        System.out.println("Time to check if empty");
-        if (resultOpt.isEmpty()) {
+        ResultRecord result = records.result();
+        if (result == null) {
             Map<String, String> body = Map.of("status", "PENDING");
             return ResponseEntity
                     .accepted()
@@ -198,38 +296,18 @@ public class MessageController {
                     .body(body);
         }
 
-        System.out.println("Wasn't empty, time to return result");
-        Map<String, AttributeValue> resultItem = resultOpt.get();
-
-        System.out.println("resultItem = " + resultItem);
-
-        String error = resultItem.containsKey("error") ? resultItem.get("error").s() : null;
-
-        // safely extract the "resultData" string (or null if missing)
-        String resultDataValue = Optional.ofNullable(resultItem.get("payload"))
-                .map(AttributeValue::s)
-                .orElse(null);
-
-        // safely extract the "completedAt" number (or throw if missing)
-        String completedAtStr = Optional.ofNullable(resultItem.get("completedAt"))
-                .map(AttributeValue::n)
-                .orElseThrow(() -> new IllegalStateException("Missing completedAt in DynamoDB RESULT record"));
-        long completedAt = Long.parseLong(completedAtStr);
-
         // build a map without ever passing in null values to Map.of
-        Map<String,Object> resultData = Map.of(
-                "resultData", resultDataValue != null ? resultDataValue : "",
-                "completedAt", completedAt
-        );
-
-
+        Map<String, Object> responseBody = (result.error() != null)
+                ? Map.<String, Object>of("error", result.error())
+                : Map.of(
+                        "resultData", result.payload() != null ? result.payload() : "",
+                        "completedAt", result.completedAt()
+                );
 
-        System.out.println("Time to delete it all");
-        batchDelete(id, List.of("REQUEST", "RESULT"));
+        // Cache before deleting, so a retried GET still gets the result instead of a 404
+        resultCache.put(id, new CachedResult(ownerId, responseBody));
 
-        Object responseBody = (error != null)
-                ? Map.<String, Object>of("error", error)
-                : resultData;
+        batchDelete(id, List.of(RecordType.REQUEST, RecordType.RESULT));
 
         return ResponseEntity
                 .ok()
@@ -238,83 +316,255 @@ public class MessageController {
     }
 
     /**
-     * 3) Cancel a pending request
+     * Two narrow reads, sent together so status still costs one round trip: a GetItem for the REQUEST's owner, and
+     * a BatchGetItem for the RESULT and CANCELLED records. Only those return a payload or error; the REQUEST's
+     * payload never comes back. A RESULT or CANCELLED record found without its REQUEST (not visible yet to an
+     * eventually consistent read) stands in for it, since both carry the owner.
+     */
+    private MessageRecords readMessage(String id) {
+        CompletableFuture<GetItemResponse> requestRead = dynamoAsync.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(BrokerItems.key(id, RecordType.REQUEST))
+                .projectionExpression(REQUEST_PROJECTION)
+                .expressionAttributeNames(REQUEST_ATTRIBUTE_NAMES)
+                .consistentRead(consistentReads)
+                .build());
+        CompletableFuture<BatchGetItemResponse> outcomeRead = dynamoAsync.batchGetItem(BatchGetItemRequest.builder()
+                .requestItems(Map.of(tableName, KeysAndAttributes.builder()
+                        .keys(BrokerItems.key(id, RecordType.RESULT), BrokerItems.key(id, RecordType.CANCELLED))
+                        .projectionExpression(OUTCOME_PROJECTION)
+                        .expressionAttributeNames(OUTCOME_ATTRIBUTE_NAMES)
+                        .consistentRead(consistentReads)
+                        .build()))
+                .build());
+
+        GetItemResponse request = await(requestRead);
+        List<Map<String, AttributeValue>> outcomes = new ArrayList<>();
+        BatchGetItemResponse batch = await(outcomeRead);
+        long pause = UNPROCESSED_RETRY_MS;
+        for (int attempt = 1; ; attempt++) {
+            outcomes.addAll(batch.responses().getOrDefault(tableName, List.of()));
+            if (batch.unprocessedKeys().isEmpty() || attempt == MAX_OUTCOME_READ_ATTEMPTS) {
+                // Anything still unprocessed reads as pending, and the client asks again
+                break;
+            }
+            try {
+                // Jittered, so concurrent status calls don't come back in step
+                Thread.sleep(ThreadLocalRandom.current().nextLong(pause / 2, pause + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pause *= 2;
+            batch = await(dynamoAsync.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(batch.unprocessedKeys())
+                    .build()));
+        }
+        MessageRecords settled = MessageRecords.of(outcomes);
+        String owner;
+        if (request.hasItem() && !request.item().isEmpty()) {
+            owner = BrokerItems.stringOf(request.item(), BrokerItems.OWNER_ID);
+        } else if (settled.cancelled() != null) {
+            owner = settled.cancelled().ownerId();
+        } else if (settled.result() != null) {
+            owner = settled.result().ownerId();
+        } else {
+            return new MessageRecords(null, null, null);
+        }
+        return new MessageRecords(new RequestRecord(id, owner, null, 0), settled.result(), settled.cancelled());
+    }
+
+    /**
+     * join(), but failing with the SDK's own exception instead of a CompletionException around it
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Re-read with a doubling pause (MIN_POLL_INTERVAL_MS up to MAX_POLL_INTERVAL_MS) until the message is
+     * settled or waitMillis runs out. Returns the last read, settled or not, or null if the REQUEST record was
+     * deleted in the meantime.
+     */
+    private MessageRecords awaitOutcome(String id, MessageRecords records, long waitMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        long pause = MIN_POLL_INTERVAL_MS;
+        while (!records.isSettled()) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                Thread.sleep(Math.min(pause, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pause = Math.min(pause * 2, MAX_POLL_INTERVAL_MS);
+            records = readMessage(id);
+            if (records.request() == null) {
+                // Another status call collected the result while we were waiting
+                return null;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 3) Cancel a pending request. One transaction checks the owner on the REQUEST record, checks there is no
+     * RESULT yet and writes the CANCELLED record, so no read goes first. A worker that puts its RESULT after this
+     * finds the CANCELLED record in its consistent read right after and deletes the RESULT again.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> cancel(
             @PathVariable String id,
             @RequestHeader("X-Owner-Id") String ownerId
     ) {
-        System.out.println("Cancelling request: " + id);
-        create_clients();
-        Map<String, AttributeValue> reqItem = dynamo.getItem(GetItemRequest.builder()
-                        .tableName(tableName)
-                        .key(Map.of(
-                                "MessageId", AttributeValue.builder().s(id).build(),
-                                "RecordType", AttributeValue.builder().s("REQUEST").build()
-                        ))
-                        .build())
-                .item();
-
-        if (reqItem == null || !ownerId.equals(reqItem.get("ownerId").s())) {
-            return ResponseEntity.status(404).build();
-        }
-
+        log.atInfo().addKeyValue("messageId", id).log("Cancelling request");
         long now = Instant.now().toEpochMilli();
-        Map<String, AttributeValue> cancelItem = Map.of(
-                "MessageId", AttributeValue.builder().s(id).build(),
-                "RecordType", AttributeValue.builder().s("CANCELLED").build(),
-                "ownerId", AttributeValue.builder().s(ownerId).build(),
-                "cancelledAt", AttributeValue.builder().n(Long.toString(now)).build()
-        );
-
-        dynamo.putItem(PutItemRequest.builder()
-                .tableName(tableName)
-                .item(cancelItem)
-                .build());
+        try {
+            dynamo.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                            TransactWriteItem.builder()
+                                    .conditionCheck(ConditionCheck.builder()
+                                            .tableName(tableName)
+                                            .key(BrokerItems.key(id, RecordType.REQUEST))
+                                            .conditionExpression("#owner = :owner")
+                                            .expressionAttributeNames(Map.of("#owner", BrokerItems.OWNER_ID))
+                                            .expressionAttributeValues(Map.of(":owner", BrokerItems.string(ownerId)))
+                                            .build())
+                                    .build(),
+                            TransactWriteItem.builder()
+                                    .conditionCheck(ConditionCheck.builder()
+                                            .tableName(tableName)
+                                            .key(BrokerItems.key(id, RecordType.RESULT))
+                                            .conditionExpression(BrokerItems.NOT_EXISTS)
+                                            .build())
+                                    .build(),
+                            TransactWriteItem.builder()
+                                    .put(Put.builder()
+                                            .tableName(tableName)
+                                            .item(BrokerItems.encode(new CancelledRecord(id, ownerId, now)))
+                                            .build())
+                                    .build())
+                    .build());
+        } catch (TransactionCanceledException e) {
+            List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+            if (conditionFailed(reasons, 0)) {
+                // No such request, or someone else's
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            if (conditionFailed(reasons, 1)) {
+                // Too late, the result is already there
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            throw e;
+        }
 
         return ResponseEntity.noContent().build();
     }
 
+    private static boolean conditionFailed(List<CancellationReason> reasons, int index) {
+        return index < reasons.size() && "ConditionalCheckFailed".equals(reasons.get(index).code());
+    }
+
     /**
-     * 4) List in-flight (pending) requests for this owner
+     * 4) List in-flight (pending) requests for this owner, oldest first. Reads the sparse owner/createdAt index
+     * one page at a time; when there is more, the next page's cursor comes back in the X-Next-Cursor header.
      */
     @GetMapping
     public ResponseEntity<List<PendingRequest>> listInflight(
-            @RequestHeader("X-Owner-Id") String ownerId
+            @RequestHeader("X-Owner-Id") String ownerId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor
     ) {
-        System.out.println("ListInflight request: " + ownerId);
-        create_clients();
-        ScanResponse sr = dynamo.scan(ScanRequest.builder()
+        log.atDebug().addKeyValue("ownerId", () -> LogValues.mask(ownerId)).log("Listing in-flight requests");
+        QueryRequest.Builder query = QueryRequest.builder()
                 .tableName(tableName)
-                .filterExpression("ownerId = :oid AND RecordType = :req")
+                .indexName(OWNER_INDEX)
+                .keyConditionExpression("ownerId = :oid")
                 .expressionAttributeValues(Map.of(
-                        ":oid", AttributeValue.builder().s(ownerId).build(),
-                        ":req", AttributeValue.builder().s("REQUEST").build()
+                        ":oid", AttributeValue.builder().s(ownerId).build()
                 ))
-                .build());
+                .limit(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+
+        if (cursor != null && !cursor.isEmpty()) {
+            Map<String, AttributeValue> startKey = decodeCursor(ownerId, cursor);
+            if (startKey == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            query.exclusiveStartKey(startKey);
+        }
+
+        QueryResponse qr = dynamo.query(query.build());
 
-        List<PendingRequest> pending = sr.items().stream()
+        List<PendingRequest> pending = qr.items().stream()
                 .map(item -> new PendingRequest(
-                        item.get("MessageId").s(),
-                        Long.parseLong(item.get("createdAt").n())
+                        BrokerItems.stringOf(item, BrokerItems.MESSAGE_ID),
+                        BrokerItems.numberOf(item, BrokerItems.CREATED_AT)
                 ))
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(pending);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (qr.hasLastEvaluatedKey() && !qr.lastEvaluatedKey().isEmpty()) {
+            response.header(NEXT_CURSOR_HEADER, encodeCursor(qr.lastEvaluatedKey()));
+        }
+        return response.body(pending);
+    }
+
+    /**
+     * The index key is ownerId + createdAt and the table key is MessageId + RecordType. The owner comes from the
+     * header and RecordType is always REQUEST, so the cursor only needs to carry MessageId and createdAt.
+     */
+    private static String encodeCursor(Map<String, AttributeValue> lastEvaluatedKey) {
+        String raw = BrokerItems.stringOf(lastEvaluatedKey, BrokerItems.MESSAGE_ID)
+                + ":" + BrokerItems.numberOf(lastEvaluatedKey, BrokerItems.CREATED_AT);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, AttributeValue> decodeCursor(String ownerId, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(':');
+            if (split <= 0) {
+                return null;
+            }
+            String messageId = raw.substring(0, split);
+            long createdAt = Long.parseLong(raw.substring(split + 1));
+            return Map.of(
+                    BrokerItems.MESSAGE_ID, BrokerItems.string(messageId),
+                    BrokerItems.RECORD_TYPE, RecordType.REQUEST.attributeValue(),
+                    BrokerItems.OWNER_ID, BrokerItems.string(ownerId),
+                    BrokerItems.CREATED_AT, BrokerItems.number(createdAt)
+            );
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or a non-numeric createdAt (NumberFormatException is an IllegalArgumentException)
+            return null;
+        }
+    }
+
+    /**
+     * 5) Result cache hit/miss/eviction counters for this container
+     */
+    @GetMapping("/cache/stats")
+    public CacheStats cacheStats() {
+        return resultCache.stats();
     }
 
     /**
      * Helper to batch‐delete the REQUEST, RESULT, CANCELLED items by MessageId
      */
-    private void batchDelete(String messageId, List<String> types) {
-        System.out.println("BatchDelete request: " + messageId);
-        create_clients();
+    private void batchDelete(String messageId, List<RecordType> types) {
+        log.atDebug().addKeyValue("messageId", messageId).addKeyValue("types", types).log("Deleting records");
         List<WriteRequest> deletes = types.stream()
-                .map(type -> Map.<String, AttributeValue>of(
-                        "MessageId", AttributeValue.builder().s(messageId).build(),
-                        "RecordType", AttributeValue.builder().s(type).build()
-                ))
+                .map(type -> BrokerItems.key(messageId, type))
                 .map(key -> WriteRequest.builder()
                         .deleteRequest(DeleteRequest.builder().key(key).build())
                         .build())
@@ -1,17 +1,37 @@
 package com.example.interviews.controller;
 
+import com.example.interviews.models.SagaOutcome;
+import com.example.interviews.saga.SagaCompletions;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import software.amazon.awssdk.core.SdkField;
+import software.amazon.awssdk.core.SdkPojo;
 import software.amazon.awssdk.services.sfn.SfnClient;
 import software.amazon.awssdk.services.sfn.model.*;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
 import software.amazon.awssdk.services.cloudwatchlogs.model.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/saga")
@@ -21,9 +41,31 @@ public class StepFunctionController {
 
     private final SfnClient sfnClient;
     private final CloudWatchLogsClient logsClient;
+    private final SagaCompletions completions;
+    // Spring Boot's applicationTaskExecutor: virtual threads when spring.threads.virtual.enabled is on
+    private final TaskExecutor taskExecutor;
 
     private static final String STATE_MACHINE_ARN = System.getenv("STATE_MACHINE_ARN");
 
+    // Has to answer before the Lambda timeout (25 s), or the caller gets a 502 instead of "Still running"
+    @Value("${app.saga.poll-timeout-ms:20000}")
+    private long pollTimeoutMillis = 20_000;
+    // Backstop for when the EventBridge notification doesn't reach this container
+    private static final long FALLBACK_CHECK_MS = 2_000;
+
+    private static final int HISTORY_PAGE_SIZE = 1_000; // GetExecutionHistory maximum
+    private static final int MAX_HISTORY_EVENTS = 10_000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // Per-event detail fields worth returning; inputs and outputs can be huge and have their own endpoints
+    private static final Set<String> HISTORY_DETAIL_FIELDS = Set.of("name", "error", "cause", "resource", "resourceType");
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private static final ScheduledExecutorService fallbackChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "saga-fallback-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @PostMapping("/start")
     public ResponseEntity<?> startExecution(@RequestBody Map<String, Object> payload) {
         StartExecutionResponse response = sfnClient.startExecution(StartExecutionRequest.builder()
@@ -64,28 +106,78 @@ public class StepFunctionController {
         return ResponseEntity.ok("Heartbeat sent");
     }
 
+    /**
+     * Answers as soon as the execution finishes, or with 202 after app.saga.poll-timeout-ms. Nothing blocks while waiting:
+     * the request parks on the completion signal fed by /saga/events, with an occasional DescribeExecution on a
+     * shared scheduler in case the notification went to another container.
+     */
     @GetMapping("/poll")
-    public ResponseEntity<?> pollForCompletion(@RequestParam String executionArn) throws InterruptedException {
-        long timeoutMs = 30_000;
-        long pollInterval = 2_000;
-        long waited = 0;
-
-        while (waited < timeoutMs) {
-            DescribeExecutionResponse response = sfnClient.describeExecution(
-                    DescribeExecutionRequest.builder().executionArn(executionArn).build());
-
-            if (!response.status().equals(ExecutionStatus.RUNNING)) {
-                return ResponseEntity.ok(Map.of(
-                        "status", response.statusAsString(),
-                        "output", response.output()
-                ));
+    public CompletableFuture<ResponseEntity<?>> pollForCompletion(@RequestParam String executionArn) {
+        SagaOutcome finished = describeIfFinished(executionArn);
+        if (finished != null) {
+            completions.complete(executionArn, finished);
+            return CompletableFuture.completedFuture(outcome(finished));
+        }
+
+        // The scheduler thread only hands the blocking DescribeExecution off, so it is never stuck behind slow calls
+        ScheduledFuture<?> fallback = fallbackChecks.scheduleWithFixedDelay(
+                () -> taskExecutor.execute(() -> checkFinished(executionArn)),
+                FALLBACK_CHECK_MS, FALLBACK_CHECK_MS, TimeUnit.MILLISECONDS);
+
+        return completions.await(executionArn)
+                .completeOnTimeout(null, pollTimeoutMillis, TimeUnit.MILLISECONDS)
+                .thenApply(outcome -> {
+                    fallback.cancel(false);
+                    if (outcome == null) {
+                        return ResponseEntity.status(202).body("Still running");
+                    }
+                    return outcome(outcome);
+                });
+    }
+
+    /**
+     * Sink for EventBridge "Step Functions Execution Status Change" events (via an API destination), wakes up
+     * anyone polling that execution. Anyone can post here, so the event is only a hint to check now: the outcome
+     * pollers get always comes from DescribeExecution, and executions nobody here is waiting on are ignored.
+     */
+    @PostMapping("/events")
+    public ResponseEntity<Void> executionStatusChanged(@RequestBody Map<String, Object> event) {
+        if (!(event.get("detail") instanceof Map<?, ?> detail)
+                || !(detail.get("executionArn") instanceof String executionArn)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (completions.isAwaited(executionArn)) {
+            taskExecutor.execute(() -> checkFinished(executionArn));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private void checkFinished(String executionArn) {
+        try {
+            SagaOutcome checked = describeIfFinished(executionArn);
+            if (checked != null) {
+                completions.complete(executionArn, checked);
             }
+        } catch (RuntimeException e) {
+            log.warn("Checking {} failed: {}", executionArn, e.getMessage());
+        }
+    }
 
-            Thread.sleep(pollInterval);
-            waited += pollInterval;
+    private SagaOutcome describeIfFinished(String executionArn) {
+        DescribeExecutionResponse response = sfnClient.describeExecution(
+                DescribeExecutionRequest.builder().executionArn(executionArn).build());
+        if (response.status().equals(ExecutionStatus.RUNNING)) {
+            return null;
         }
+        return new SagaOutcome(response.statusAsString(), response.output());
+    }
 
-        return ResponseEntity.status(202).body("Still running");
+    private static ResponseEntity<?> outcome(SagaOutcome outcome) {
+        // HashMap, output is null for failed executions and Map.of won't take that
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", outcome.status());
+        body.put("output", outcome.output());
+        return ResponseEntity.ok(body);
     }
 
     @GetMapping("/logs")
@@ -99,18 +191,79 @@ public class StepFunctionController {
         return ResponseEntity.ok(logs.events().stream().map(OutputLogEvent::message).toList());
     }
 
+    /**
+     * Execution history as NDJSON, one event per line, written page by page as GetExecutionHistory returns them.
+     * At most limit events are sent; when there are more, the last line is {"nextToken": "..."} to pass back in to
+     * continue.
+     */
     @GetMapping("/history")
-    public ResponseEntity<?> executionHistory(@RequestParam String executionArn) {
-        GetExecutionHistoryResponse history = sfnClient.getExecutionHistory(GetExecutionHistoryRequest.builder()
-                .executionArn(executionArn)
-                .build());
+    public ResponseEntity<StreamingResponseBody> executionHistory(
+            @RequestParam String executionArn,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(required = false) String nextToken
+    ) {
+        int maxEvents = Math.max(1, Math.min(limit, MAX_HISTORY_EVENTS));
+        StreamingResponseBody body = out -> writeHistory(executionArn, maxEvents, nextToken, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void writeHistory(String executionArn, int maxEvents, String startToken, OutputStream out)
+            throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One value per line instead of the default single space between root values
+            json.setRootValueSeparator(new SerializedString("\n"));
 
-        return ResponseEntity.ok(history.events().stream()
-                .map(e -> Map.of(
-                        "timestamp", e.timestamp(),
-                        "type", e.typeAsString(),
-                        "details", e.toString()
-                )).toList());
+            int written = 0;
+            String token = startToken;
+            do {
+                GetExecutionHistoryResponse page = sfnClient.getExecutionHistory(GetExecutionHistoryRequest.builder()
+                        .executionArn(executionArn)
+                        .maxResults(Math.min(HISTORY_PAGE_SIZE, maxEvents - written))
+                        .nextToken(token)
+                        .build());
+                for (HistoryEvent event : page.events()) {
+                    writeEvent(json, event);
+                }
+                written += page.events().size();
+                token = page.nextToken();
+                json.flush();
+            } while (token != null && written < maxEvents);
+
+            if (token != null) {
+                json.writeStartObject();
+                json.writeStringField("nextToken", token);
+                json.writeEndObject();
+            }
+            json.writeRaw('\n');
+        }
+    }
+
+    private static void writeEvent(JsonGenerator json, HistoryEvent event) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", event.id());
+        if (event.previousEventId() != null) {
+            json.writeNumberField("previousEventId", event.previousEventId());
+        }
+        json.writeStringField("timestamp", event.timestamp() == null ? null : event.timestamp().toString());
+        json.writeStringField("type", event.typeAsString());
+
+        // Each event type fills in exactly one of the ~50 *EventDetails members, find it instead of listing them
+        for (SdkField<?> field : event.sdkFields()) {
+            if (field.memberName().endsWith("EventDetails")
+                    && field.getValueOrDefault(event) instanceof SdkPojo details) {
+                json.writeObjectFieldStart("details");
+                for (SdkField<?> detailField : details.sdkFields()) {
+                    if (HISTORY_DETAIL_FIELDS.contains(detailField.memberName())
+                            && detailField.getValueOrDefault(details) instanceof String value) {
+                        json.writeStringField(detailField.memberName(), value);
+                    }
+                }
+                json.writeEndObject();
+                break;
+            }
+        }
+        json.writeEndObject();
     }
 
     @GetMapping("/list")
@@ -0,0 +1,43 @@
+package com.example.interviews.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.example.broker.LogValues;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps a fraction (rate, 0 to 1) of the events below WARN; WARN and ERROR always go through. The decision is made
+ * on the awsRequestId in the MDC with {@link LogValues#isSampled}, so an invocation's lines are either all kept or all
+ * dropped and a sampled request can be read end to end. Events outside of an invocation are sampled one by one.
+ * <p>
+ * Sits on the console appender, so dropped events are never encoded.
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    public static final String CORRELATION_KEY = "awsRequestId";
+
+    private double rate = 1.0;
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rate >= 1.0 || event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        String correlationId = event.getMDCPropertyMap().get(CORRELATION_KEY);
+        return isSampled(correlationId, rate) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static boolean isSampled(String correlationId, double rate) {
+        if (correlationId == null) {
+            return ThreadLocalRandom.current().nextDouble() < rate;
+        }
+        return LogValues.isSampled(correlationId, rate);
+    }
+}
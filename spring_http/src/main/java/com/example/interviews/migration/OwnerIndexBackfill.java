@@ -0,0 +1,100 @@
+package com.example.interviews.migration;
+
+import com.example.broker.RecordType;
+import com.example.interviews.controller.MessageController;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One-off migration for the ownerId-createdAt-index used by GET /messages.
+ * <p>
+ * DynamoDB backfills a new GSI by itself, but only rows that have both index keys make it in. This finds
+ * REQUEST rows written without a createdAt, stamps them with the migration time so they show up in the
+ * listing, and then waits for the index to go ACTIVE.
+ * <p>
+ * Run with: {@code java -cp ... com.example.interviews.migration.OwnerIndexBackfill [table-name] [region]}
+ */
+public class OwnerIndexBackfill {
+
+    private final DynamoDbClient dynamo;
+    private final String tableName;
+
+    public OwnerIndexBackfill(DynamoDbClient dynamo, String tableName) {
+        this.dynamo = dynamo;
+        this.tableName = tableName;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String tableName = args.length > 0 ? args[0] : "message-broker";
+        String region = args.length > 1 ? args[1] : "us-east-2";
+
+        try (DynamoDbClient dynamo = DynamoDbClient.builder().region(Region.of(region)).build()) {
+            OwnerIndexBackfill backfill = new OwnerIndexBackfill(dynamo, tableName);
+            int updated = backfill.stampMissingCreatedAt();
+            System.out.println("Stamped createdAt on " + updated + " REQUEST records");
+            backfill.awaitIndexActive();
+            System.out.println(MessageController.OWNER_INDEX + " is ACTIVE");
+        }
+    }
+
+    /**
+     * @return how many REQUEST records were updated
+     */
+    public int stampMissingCreatedAt() {
+        String now = Long.toString(Instant.now().toEpochMilli());
+        int updated = 0;
+
+        // The paginator follows LastEvaluatedKey, so this covers the whole table, not just the first 1 MB
+        for (ScanResponse page : dynamo.scanPaginator(ScanRequest.builder()
+                .tableName(tableName)
+                .filterExpression("RecordType = :req AND attribute_exists(ownerId) AND attribute_not_exists(createdAt)")
+                .projectionExpression("MessageId, RecordType")
+                .expressionAttributeValues(Map.of(
+                        ":req", RecordType.REQUEST.attributeValue()
+                ))
+                .build())) {
+            for (Map<String, AttributeValue> key : page.items()) {
+                try {
+                    dynamo.updateItem(UpdateItemRequest.builder()
+                            .tableName(tableName)
+                            .key(key)
+                            .updateExpression("SET createdAt = :now")
+                            // Don't resurrect a request that was deleted after we scanned it
+                            .conditionExpression("attribute_exists(MessageId) AND attribute_not_exists(createdAt)")
+                            .expressionAttributeValues(Map.of(
+                                    ":now", AttributeValue.builder().n(now).build()
+                            ))
+                            .build());
+                    updated++;
+                } catch (ConditionalCheckFailedException e) {
+                    // Deleted or stamped concurrently, nothing to do
+                }
+            }
+        }
+        return updated;
+    }
+
+    public void awaitIndexActive() throws InterruptedException {
+        while (true) {
+            TableDescription table = dynamo.describeTable(DescribeTableRequest.builder()
+                    .tableName(tableName)
+                    .build()).table();
+
+            GlobalSecondaryIndexDescription index = table.globalSecondaryIndexes().stream()
+                    .filter(gsi -> MessageController.OWNER_INDEX.equals(gsi.indexName()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Table " + tableName + " has no " + MessageController.OWNER_INDEX + ", apply the terraform first"));
+
+            if (index.indexStatus() == IndexStatus.ACTIVE) {
+                return;
+            }
+            System.out.println(MessageController.OWNER_INDEX + " is " + index.indexStatusAsString() + ", waiting");
+            Thread.sleep(10_000);
+        }
+    }
+}
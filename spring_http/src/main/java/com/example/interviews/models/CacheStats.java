@@ -0,0 +1,10 @@
+package com.example.interviews.models;
+
+// CacheStats.java
+// Returned by GET /messages/cache/stats
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        int size
+) { }
@@ -0,0 +1,9 @@
+package com.example.interviews.models;
+
+// CachedResult.java
+// What GET /messages/{id} returned for a settled (RESULT or CANCELLED) message, kept after the records are deleted
+import java.util.Map;
+public record CachedResult(
+        String ownerId,
+        Map<String, Object> body
+) { }
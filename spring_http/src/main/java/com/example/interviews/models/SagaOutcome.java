@@ -0,0 +1,8 @@
+package com.example.interviews.models;
+
+// SagaOutcome.java
+// Terminal state of a step function execution, as reported by EventBridge or DescribeExecution
+public record SagaOutcome(
+        String status,
+        String output
+) { }
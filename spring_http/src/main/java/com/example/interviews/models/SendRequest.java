@@ -1,9 +1,14 @@
 package com.example.interviews.models;
 
 // SendRequest.java
-// Clients must send both ownerId and payload
+// Clients must send both ownerId and payload. operation picks the worker's compute kernel (log, exp, stats,
+// sliding-window); leave it out for log.
 public record SendRequest(
         String ownerId,
-        String payload
-) { }
-
+        String payload,
+        String operation
+) {
+    public SendRequest(String ownerId, String payload) {
+        this(ownerId, payload, null);
+    }
+}
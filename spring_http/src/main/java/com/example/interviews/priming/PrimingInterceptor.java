@@ -0,0 +1,45 @@
+package com.example.interviews.priming;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Added to every AWS client. While stubbing is on, calls are cut off just before they hit the network: they still
+ * go through marshalling, the credential chain and signing, which is the part worth having in the snapshot, but
+ * priming requests never write anything. Connections opened before a checkpoint are dead after restore anyway.
+ */
+public class PrimingInterceptor implements ExecutionInterceptor {
+
+    private static final AtomicBoolean stubbing = new AtomicBoolean();
+
+    public static final PrimingInterceptor INSTANCE = new PrimingInterceptor();
+
+    /**
+     * Runs the task with every AWS call failing fast with a {@link PrimingStubException}. Only meant for the
+     * checkpoint, when no real traffic is being served.
+     */
+    public static void stubbed(Runnable task) {
+        stubbing.set(true);
+        try {
+            task.run();
+        } finally {
+            stubbing.set(false);
+        }
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        if (stubbing.get()) {
+            throw new PrimingStubException();
+        }
+    }
+
+    public static class PrimingStubException extends RuntimeException {
+        PrimingStubException() {
+            super("AWS call stubbed out while priming", null, false, false);
+        }
+    }
+}
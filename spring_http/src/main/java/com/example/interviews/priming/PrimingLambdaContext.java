@@ -0,0 +1,88 @@
+package com.example.interviews.priming;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stand-in Lambda context for priming requests, which run outside of any invocation.
+ */
+public class PrimingLambdaContext implements Context {
+
+    private static final Logger log = LoggerFactory.getLogger(PrimingLambdaContext.class);
+
+    // Whatever the container logs while priming, at DEBUG so it stays out of the snapshot's logs by default
+    private static final LambdaLogger logger = new LambdaLogger() {
+        @Override
+        public void log(String message) {
+            log.debug(message);
+        }
+
+        @Override
+        public void log(byte[] message) {
+            if (log.isDebugEnabled()) {
+                log.debug(new String(message, StandardCharsets.UTF_8));
+            }
+        }
+    };
+
+    @Override
+    public String getAwsRequestId() {
+        return "snapstart-priming";
+    }
+
+    @Override
+    public String getLogGroupName() {
+        return System.getenv("AWS_LAMBDA_LOG_GROUP_NAME");
+    }
+
+    @Override
+    public String getLogStreamName() {
+        return System.getenv("AWS_LAMBDA_LOG_STREAM_NAME");
+    }
+
+    @Override
+    public String getFunctionName() {
+        return System.getenv("AWS_LAMBDA_FUNCTION_NAME");
+    }
+
+    @Override
+    public String getFunctionVersion() {
+        return System.getenv("AWS_LAMBDA_FUNCTION_VERSION");
+    }
+
+    @Override
+    public String getInvokedFunctionArn() {
+        return null;
+    }
+
+    @Override
+    public CognitoIdentity getIdentity() {
+        return null;
+    }
+
+    @Override
+    public ClientContext getClientContext() {
+        return null;
+    }
+
+    @Override
+    public int getRemainingTimeInMillis() {
+        return 30_000;
+    }
+
+    @Override
+    public int getMemoryLimitInMB() {
+        return Integer.parseInt(System.getenv().getOrDefault("AWS_LAMBDA_FUNCTION_MEMORY_SIZE", "0"));
+    }
+
+    @Override
+    public LambdaLogger getLogger() {
+        return logger;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.interviews.priming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fires synthetic API Gateway (HTTP API, payload v2) events at the container, one per controller route, so class
+ * loading, Jackson (de)serializers, handler mapping and the SDK marshallers are all done before the SnapStart
+ * snapshot instead of on the first request after restore.
+ */
+public class RequestPrimer {
+
+    public static final String PRIMING_OWNER = "snapstart-priming";
+
+    @FunctionalInterface
+    public interface EventSink {
+        void proxy(InputStream event, OutputStream response) throws IOException;
+    }
+
+    public record PrimingRequest(String method, String path, String query, Map<String, String> headers, String body) {
+        static PrimingRequest get(String path, String query) {
+            return new PrimingRequest("GET", path, query, Map.of(), null);
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RequestPrimer.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final EventSink sink;
+    private final int iterations;
+
+    public RequestPrimer(EventSink sink, int iterations) {
+        this.sink = sink;
+        this.iterations = Math.max(1, iterations);
+    }
+
+    /**
+     * Every route we serve. The AWS backed ones only mean something with {@link PrimingInterceptor#stubbed} on,
+     * POST /messages would otherwise really enqueue.
+     */
+    public static List<PrimingRequest> routes() {
+        String messageId = UUID.randomUUID().toString();
+        return List.of(
+                PrimingRequest.get("/ping", ""),
+                PrimingRequest.get("/api/sliding-window", "numbers=1,2,3,4,5&windowSize=2"),
+                new PrimingRequest("POST", "/messages", "", Map.of("Content-Type", "application/json"),
+                        "{\"ownerId\":\"" + PRIMING_OWNER + "\",\"payload\":\"1\"}"),
+                new PrimingRequest("GET", "/messages/" + messageId, "", Map.of("X-Owner-Id", PRIMING_OWNER), null),
+                PrimingRequest.get("/messages/cache/stats", ""),
+                PrimingRequest.get("/saga/status", "executionArn=arn:aws:states:us-east-2:000000000000:execution:priming:priming")
+        );
+    }
+
+    /**
+     * @return how many requests went through without the container throwing
+     */
+    public int prime(List<PrimingRequest> requests) {
+        int ok = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (PrimingRequest request : requests) {
+                try {
+                    sink.proxy(new ByteArrayInputStream(event(request)), new ByteArrayOutputStream());
+                    ok++;
+                } catch (IOException | RuntimeException e) {
+                    // A failing route shouldn't stop the others from being primed
+                    log.debug("Priming {} {} failed: {}", request.method(), request.path(), e.toString());
+                }
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * @return the request as an HTTP API payload v2 event, the way API Gateway hands it to the handler
+     */
+    static byte[] event(PrimingRequest request) throws IOException {
+        Instant now = Instant.now();
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("accept", "application/json");
+        headers.put("user-agent", "snapstart-priming");
+        request.headers().forEach((name, value) -> headers.put(name.toLowerCase(), value));
+
+        Map<String, Object> http = new LinkedHashMap<>();
+        http.put("method", request.method());
+        http.put("path", request.path());
+        http.put("protocol", "HTTP/1.1");
+        http.put("sourceIp", "127.0.0.1");
+        http.put("userAgent", "snapstart-priming");
+
+        Map<String, Object> requestContext = new LinkedHashMap<>();
+        requestContext.put("accountId", "000000000000");
+        requestContext.put("apiId", "priming");
+        requestContext.put("domainName", "localhost");
+        requestContext.put("http", http);
+        requestContext.put("requestId", "priming-" + UUID.randomUUID());
+        requestContext.put("routeKey", "$default");
+        requestContext.put("stage", "$default");
+        requestContext.put("time", now.toString());
+        requestContext.put("timeEpoch", now.toEpochMilli());
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("version", "2.0");
+        event.put("routeKey", "$default");
+        event.put("rawPath", request.path());
+        event.put("rawQueryString", request.query());
+        event.put("headers", headers);
+        event.put("requestContext", requestContext);
+        event.put("isBase64Encoded", false);
+        if (request.body() != null) {
+            event.put("body", request.body());
+        }
+        return objectMapper.writeValueAsBytes(event);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.interviews.saga;
+
+import com.example.interviews.models.SagaOutcome;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One future per execution, kept in an LRU so finished executions still answer straight away for a while. Only sees
+ * notifications that reach this container.
+ * <p>
+ * Executions someone is still waiting on are never evicted, so the map can grow past maxEntries while that many
+ * pollers are parked. A waiter stops counting once its own future completes, including by its timeout.
+ */
+public class InMemorySagaCompletions implements SagaCompletions {
+
+    private final Map<String, Execution> executions;
+
+    public InMemorySagaCompletions(int maxEntries) {
+        this.executions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Execution> eldest) {
+                if (size() > maxEntries) {
+                    // Least recently used first, skipping executions with someone parked on them
+                    Iterator<Execution> oldest = values().iterator();
+                    while (oldest.hasNext()) {
+                        if (oldest.next().waiters == 0) {
+                            oldest.remove();
+                            break;
+                        }
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void complete(String executionArn, SagaOutcome outcome) {
+        // Completed outside the lock, waiters' callbacks run on this thread
+        execution(executionArn, false).finished.complete(outcome);
+    }
+
+    @Override
+    public CompletableFuture<SagaOutcome> await(String executionArn) {
+        Execution execution = execution(executionArn, true);
+        CompletableFuture<SagaOutcome> waiting = execution.finished.copy();
+        waiting.whenComplete((outcome, error) -> release(execution));
+        return waiting;
+    }
+
+    @Override
+    public synchronized boolean isAwaited(String executionArn) {
+        Execution execution = executions.get(executionArn);
+        return execution != null && execution.waiters > 0 && !execution.finished.isDone();
+    }
+
+    private synchronized Execution execution(String executionArn, boolean waiting) {
+        Execution execution = executions.computeIfAbsent(executionArn, arn -> new Execution());
+        if (waiting) {
+            execution.waiters++;
+        }
+        return execution;
+    }
+
+    private synchronized void release(Execution execution) {
+        execution.waiters--;
+    }
+
+    private static final class Execution {
+        final CompletableFuture<SagaOutcome> finished = new CompletableFuture<>();
+        // Guarded by the enclosing InMemorySagaCompletions
+        int waiters;
+    }
+}
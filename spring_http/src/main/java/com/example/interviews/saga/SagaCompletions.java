@@ -0,0 +1,28 @@
+package com.example.interviews.saga;
+
+import com.example.interviews.models.SagaOutcome;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where finished executions are announced and waited on, so nobody has to sleep between DescribeExecution calls.
+ */
+public interface SagaCompletions {
+
+    /**
+     * Records a terminal state and wakes everyone waiting on that execution. Later calls for the same execution are
+     * ignored.
+     */
+    void complete(String executionArn, SagaOutcome outcome);
+
+    /**
+     * @return completes once the execution is announced as finished. Each caller gets its own future; completing it
+     * (on a timeout, say) only ends that caller's wait.
+     */
+    CompletableFuture<SagaOutcome> await(String executionArn);
+
+    /**
+     * @return whether someone is waiting on this execution and it hasn't been announced as finished yet
+     */
+    boolean isAwaited(String executionArn);
+}
@@ -0,0 +1,17 @@
+package com.example.interviews.saga;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SagaConfig {
+
+    @Value("${app.saga.completions.max-entries:1000}")
+    private int maxEntries;
+
+    @Bean
+    public SagaCompletions sagaCompletions() {
+        return new InMemorySagaCompletions(maxEntries);
+    }
+}
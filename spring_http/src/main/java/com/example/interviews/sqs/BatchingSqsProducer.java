@@ -0,0 +1,238 @@
+package com.example.interviews.sqs;
+
+import org.crac.Core;
+import org.crac.Resource;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Coalesces concurrent sends into SendMessageBatch calls. A send that finds nothing buffered and no batch in flight
+ * goes out at once, so a lone sender never waits; a Lambda execution environment serves one request at a time, so
+ * there every send is one of those. Otherwise the message waits for company until the batch in flight comes back,
+ * or windowMillis at most, and a batch goes out as soon as it has maxBatchSize (at most 10, the SQS limit) entries.
+ * Batching only pays off when sends overlap, in a container serving many requests at once. Each caller gets back a
+ * future for its own entry, completed with the SQS message id or failed with that entry's error.
+ * <p>
+ * SQS rejects a whole batch whose bodies and attributes add up to more than maxBatchBytes, so the buffer is sent
+ * early when the next message would push it over, and a message that is too big on its own goes out alone (and
+ * fails alone).
+ * <p>
+ * Whatever is buffered is flushed on close and before a CRaC/SnapStart checkpoint, so nothing is frozen in the
+ * buffer.
+ */
+public class BatchingSqsProducer implements Resource, AutoCloseable {
+
+    private static final int SQS_MAX_BATCH_SIZE = 10;
+    /**
+     * 256 KiB, the SQS limit for one message and for the sum of a batch
+     */
+    public static final int SQS_MAX_BATCH_BYTES = 262_144;
+    private static final long CHECKPOINT_FLUSH_TIMEOUT_MS = 5_000;
+
+    private final SqsAsyncClient sqs;
+    private final String queueUrl;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final ScheduledExecutorService flusher;
+
+    private final Object lock = new Object();
+    private List<Pending> buffer = new ArrayList<>();
+    private int bufferedBytes;
+    private int inFlight;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public BatchingSqsProducer(SqsAsyncClient sqs, String queueUrl, long windowMillis, int maxBatchSize) {
+        this(sqs, queueUrl, windowMillis, maxBatchSize, SQS_MAX_BATCH_BYTES);
+    }
+
+    public BatchingSqsProducer(SqsAsyncClient sqs, String queueUrl, long windowMillis, int maxBatchSize,
+                               int maxBatchBytes) {
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, SQS_MAX_BATCH_SIZE));
+        this.maxBatchBytes = Math.max(1, Math.min(maxBatchBytes, SQS_MAX_BATCH_BYTES));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sqs-batch-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Core.getGlobalContext().register(this);
+    }
+
+    /**
+     * @return the message id SQS assigned, once the batch holding this message has been sent
+     */
+    public CompletableFuture<String> send(String messageBody, Map<String, MessageAttributeValue> attributes) {
+        Pending pending = new Pending(messageBody, attributes, sizeOf(messageBody, attributes),
+                new CompletableFuture<>());
+        if (pending.bytes >= maxBatchBytes) {
+            // Would make any batch it joined too long; this way only its own send fails if SQS refuses it
+            synchronized (lock) {
+                inFlight++;
+            }
+            dispatch(List.of(pending));
+            return pending.future;
+        }
+
+        List<Pending> full = null;
+        List<Pending> alsoFull = null;
+        synchronized (lock) {
+            if (bufferedBytes + pending.bytes > maxBatchBytes) {
+                full = drain();
+            }
+            buffer.add(pending);
+            bufferedBytes += pending.bytes;
+            if (buffer.size() >= maxBatchSize || inFlight == 0) {
+                // Full, or nobody else is sending so there is no company worth waiting for
+                alsoFull = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = flusher.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        if (alsoFull != null) {
+            dispatch(alsoFull);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Sends whatever is buffered right now.
+     *
+     * @return completes when that batch has been answered
+     */
+    public CompletableFuture<Void> flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        return batch.isEmpty() ? CompletableFuture.completedFuture(null) : dispatch(batch);
+    }
+
+    /**
+     * A cheap call so the client's credentials, marshallers and connections are ready before the first send.
+     */
+    public CompletableFuture<GetQueueAttributesResponse> prime() {
+        return sqs.getQueueAttributes(GetQueueAttributesRequest.builder()
+                .queueUrl(queueUrl)
+                .attributeNames(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES)
+                .build());
+    }
+
+    /**
+     * What SQS counts against the size limits: the body plus each attribute's name, type and value, in bytes
+     */
+    private static int sizeOf(String messageBody, Map<String, MessageAttributeValue> attributes) {
+        int bytes = utf8Length(messageBody);
+        for (Map.Entry<String, MessageAttributeValue> attribute : attributes.entrySet()) {
+            MessageAttributeValue value = attribute.getValue();
+            bytes += utf8Length(attribute.getKey()) + utf8Length(value.dataType()) + utf8Length(value.stringValue());
+            if (value.binaryValue() != null) {
+                bytes += value.binaryValue().asByteArrayUnsafe().length;
+            }
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // Caller holds lock, and dispatches what comes back
+    private List<Pending> drain() {
+        List<Pending> batch = buffer;
+        buffer = new ArrayList<>();
+        bufferedBytes = 0;
+        if (!batch.isEmpty()) {
+            inFlight++;
+        }
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private CompletableFuture<Void> dispatch(List<Pending> batch) {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            // Entry ids only need to be unique within the batch, so the index doubles as the way back
+            entries.add(SendMessageBatchRequestEntry.builder()
+                    .id(Integer.toString(i))
+                    .messageBody(pending.messageBody)
+                    .messageAttributes(pending.attributes)
+                    .build());
+        }
+
+        return sqs.sendMessageBatch(SendMessageBatchRequest.builder()
+                        .queueUrl(queueUrl)
+                        .entries(entries)
+                        .build())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        batch.forEach(pending -> pending.future.completeExceptionally(error));
+                        return null;
+                    }
+                    for (SendMessageBatchResultEntry sent : response.successful()) {
+                        batch.get(Integer.parseInt(sent.id())).future.complete(sent.messageId());
+                    }
+                    for (BatchResultErrorEntry failed : response.failed()) {
+                        batch.get(Integer.parseInt(failed.id())).future.completeExceptionally(SqsException.builder()
+                                .message(failed.code() + ": " + failed.message())
+                                .build());
+                    }
+                    return null;
+                })
+                .thenRun(this::batchDone);
+    }
+
+    /**
+     * What was buffered while this batch was out goes now, instead of waiting out the rest of the window
+     */
+    private void batchDone() {
+        List<Pending> next = null;
+        synchronized (lock) {
+            inFlight--;
+            if (inFlight == 0 && !buffer.isEmpty()) {
+                next = drain();
+            }
+        }
+        if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush().join();
+        flusher.shutdown();
+    }
+
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) throws Exception {
+        flush().get(CHECKPOINT_FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        // Nothing to do, the buffer was empty when the snapshot was taken
+    }
+
+    private record Pending(
+            String messageBody,
+            Map<String, MessageAttributeValue> attributes,
+            int bytes,
+            CompletableFuture<String> future
+    ) { }
+}
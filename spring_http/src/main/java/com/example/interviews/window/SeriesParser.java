@@ -0,0 +1,155 @@
+package com.example.interviews.window;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Reads number series straight into a {@link LongSeries}, one character at a time, with no String per element.
+ * Bad input is reported as an IllegalArgumentException.
+ */
+public final class SeriesParser {
+
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private SeriesParser() {
+    }
+
+    /**
+     * Integers separated by commas and/or whitespace, e.g. a query parameter value.
+     */
+    public static LongSeries parseCsv(CharSequence text) {
+        CsvState state = new CsvState(new LongSeries(Math.max(1, text.length() / 2)));
+        for (int i = 0; i < text.length(); i++) {
+            state.accept(text.charAt(i));
+        }
+        return state.finish();
+    }
+
+    /**
+     * Same format as {@link #parseCsv(CharSequence)}, streamed from a request body (ASCII).
+     */
+    public static LongSeries parseCsv(InputStream in) throws IOException {
+        CsvState state = new CsvState(new LongSeries());
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                state.accept((char) (buffer[i] & 0xFF));
+            }
+        }
+        return state.finish();
+    }
+
+    /**
+     * A JSON array of integers, e.g. [1, 2, 3], pulled token by token.
+     */
+    public static LongSeries parseJsonArray(InputStream in, JsonFactory jsonFactory) throws IOException {
+        LongSeries series = new LongSeries();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of integers");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.VALUE_NUMBER_INT) {
+                if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                    throw new IllegalArgumentException("Number out of range: " + parser.getText());
+                }
+                series.add(parser.getLongValue());
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("Expected an integer but got " + token);
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Little-endian int32 (bytesPerValue 4) or int64 (8) values back to back, decoded through a ByteBuffer view.
+     *
+     * @param contentLength body size when known (the Content-Length header), or -1
+     */
+    public static LongSeries parseLittleEndian(InputStream in, long contentLength, int bytesPerValue)
+            throws IOException {
+        if (bytesPerValue != Integer.BYTES && bytesPerValue != Long.BYTES) {
+            throw new IllegalArgumentException("Values must be 4 or 8 bytes wide");
+        }
+        byte[] bytes = contentLength >= 0 && contentLength <= Integer.MAX_VALUE
+                ? in.readNBytes((int) contentLength)
+                : in.readAllBytes();
+        if (bytes.length % bytesPerValue != 0) {
+            throw new IllegalArgumentException(bytes.length + " bytes is not a whole number of "
+                    + bytesPerValue + " byte values");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        long[] values = new long[bytes.length / bytesPerValue];
+        if (bytesPerValue == Long.BYTES) {
+            buffer.asLongBuffer().get(values);
+        } else {
+            IntBuffer ints = buffer.asIntBuffer();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = ints.get(i);
+            }
+        }
+        return LongSeries.wrap(values);
+    }
+
+    private static final class CsvState {
+        private final LongSeries series;
+        private long value;
+        private boolean negative;
+        private boolean inNumber;
+        private boolean signOnly;
+
+        CsvState(LongSeries series) {
+            this.series = series;
+        }
+
+        void accept(char c) {
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                // Accumulate negatively so Long.MIN_VALUE parses too
+                if (value < (Long.MIN_VALUE + digit) / 10) {
+                    throw new IllegalArgumentException("Number out of range at element " + series.size());
+                }
+                value = value * 10 - digit;
+                inNumber = true;
+                signOnly = false;
+            } else if ((c == '-' || c == '+') && !inNumber && !signOnly) {
+                negative = c == '-';
+                signOnly = true;
+            } else if (c == ',' || Character.isWhitespace(c)) {
+                end();
+            } else {
+                throw new IllegalArgumentException("Unexpected '" + c + "' at element " + series.size());
+            }
+        }
+
+        LongSeries finish() {
+            end();
+            return series;
+        }
+
+        private void end() {
+            if (signOnly) {
+                throw new IllegalArgumentException("Sign without a number at element " + series.size());
+            }
+            if (inNumber) {
+                if (!negative && value == Long.MIN_VALUE) {
+                    throw new IllegalArgumentException("Number out of range at element " + series.size());
+                }
+                series.add(negative ? value : -value);
+            }
+            value = 0;
+            negative = false;
+            inNumber = false;
+        }
+    }
+}
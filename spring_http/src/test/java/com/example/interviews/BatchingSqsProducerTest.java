@@ -0,0 +1,174 @@
+package com.example.interviews;
+
+import com.example.interviews.sqs.BatchingSqsProducer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BatchingSqsProducerTest {
+
+    /**
+     * Answers every entry successfully, with the entry id as the message id
+     */
+    private static final Answer<CompletableFuture<SendMessageBatchResponse>> ACCEPT_ALL = invocation -> {
+        SendMessageBatchRequest request = invocation.getArgument(0);
+        return CompletableFuture.completedFuture(SendMessageBatchResponse.builder()
+                .successful(request.entries().stream()
+                        .map(entry -> SendMessageBatchResultEntry.builder()
+                                .id(entry.id())
+                                .messageId("sqs-" + entry.messageBody())
+                                .build())
+                        .toList())
+                .build());
+    };
+
+    private SqsAsyncClient mockSqs;
+
+    @BeforeEach
+    void setup() {
+        mockSqs = mock(SqsAsyncClient.class);
+        when(mockSqs.sendMessageBatch(any(SendMessageBatchRequest.class))).thenAnswer(ACCEPT_ALL);
+    }
+
+    /**
+     * Sends a message whose batch stays in flight until the returned future completes, so the sends after it have
+     * company to wait for
+     */
+    private CompletableFuture<SendMessageBatchResponse> busy(BatchingSqsProducer producer) {
+        CompletableFuture<SendMessageBatchResponse> inFlight = new CompletableFuture<>();
+        doReturn(inFlight).doAnswer(ACCEPT_ALL).when(mockSqs).sendMessageBatch(any(SendMessageBatchRequest.class));
+        producer.send("busy", Map.of());
+        return inFlight;
+    }
+
+    @Test
+    void testLoneSendGoesOutAtOnce() {
+        BatchingSqsProducer producer = new BatchingSqsProducer(mockSqs, "https://queue", 60_000, 10);
+
+        // One after the other, like requests in a Lambda execution environment
+        assertEquals("sqs-m0", producer.send("m0", Map.of()).join());
+        assertEquals("sqs-m1", producer.send("m1", Map.of()).join());
+
+        verify(mockSqs, times(2)).sendMessageBatch(any(SendMessageBatchRequest.class));
+    }
+
+    @Test
+    void testSendsWhileABatchIsInFlightShareTheNext() {
+        BatchingSqsProducer producer = new BatchingSqsProducer(mockSqs, "https://queue", 60_000, 10);
+        var inFlight = busy(producer);
+
+        List<CompletableFuture<String>> sent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sent.add(producer.send("m" + i, Map.of()));
+        }
+        verify(mockSqs, times(1)).sendMessageBatch(any(SendMessageBatchRequest.class));
+
+        // They go as soon as the batch in flight is answered, without waiting out the window
+        inFlight.complete(SendMessageBatchResponse.builder().build());
+
+        var captor = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqs, times(2)).sendMessageBatch(captor.capture());
+        assertEquals(3, captor.getValue().entries().size());
+        assertEquals("sqs-m0", sent.get(0).join());
+        assertEquals("sqs-m2", sent.get(2).join());
+    }
+
+    @Test
+    void testFullBatchGoesOutWithoutWaitingForTheWindow() {
+        BatchingSqsProducer producer = new BatchingSqsProducer(mockSqs, "https://queue", 60_000, 10);
+        busy(producer);
+
+        for (int i = 0; i < 12; i++) {
+            producer.send("m" + i, Map.of());
+        }
+
+        var captor = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqs, times(2)).sendMessageBatch(captor.capture());
+        assertEquals(10, captor.getValue().entries().size());
+    }
+
+    @Test
+    void testLargeEntriesSplitTheBatchBySize() {
+        BatchingSqsProducer producer = new BatchingSqsProducer(mockSqs, "https://queue", 60_000, 10, 100);
+        busy(producer);
+        String forty = "x".repeat(40);
+
+        var first = producer.send("a" + forty, Map.of());
+        var second = producer.send("b" + forty, Map.of());
+        verify(mockSqs, times(1)).sendMessageBatch(any(SendMessageBatchRequest.class));
+        // A third 41 byte body would take the batch past 100 bytes, so the first two go out without it
+        var third = producer.send("c" + forty, Map.of());
+        // Too big for any batch, so it goes out alone and the buffered one keeps waiting
+        var huge = producer.send("d" + "x".repeat(100), Map.of());
+        producer.flush().join();
+
+        var captor = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqs, times(4)).sendMessageBatch(captor.capture());
+        List<List<String>> batches = captor.getAllValues().stream()
+                .map(request -> request.entries().stream().map(SendMessageBatchRequestEntry::messageBody).toList())
+                .toList();
+        assertEquals(List.of(List.of("busy"), List.of("a" + forty, "b" + forty), List.of("d" + "x".repeat(100)),
+                List.of("c" + forty)), batches);
+        assertEquals("sqs-a" + forty, first.join());
+        assertEquals("sqs-b" + forty, second.join());
+        assertEquals("sqs-c" + forty, third.join());
+        assertEquals("sqs-d" + "x".repeat(100), huge.join());
+    }
+
+    @Test
+    void testAttributesCountTowardsTheBatchSize() {
+        BatchingSqsProducer producer = new BatchingSqsProducer(mockSqs, "https://queue", 60_000, 10, 100);
+        busy(producer);
+        // 2 byte body + "Payload" + "String" + 40 byte value = 55 bytes each
+        Map<String, MessageAttributeValue> attributes = Map.of("Payload", MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue("y".repeat(40))
+                .build());
+
+        producer.send("m0", attributes);
+        producer.send("m1", attributes);
+        producer.flush().join();
+
+        verify(mockSqs, times(3)).sendMessageBatch(any(SendMessageBatchRequest.class));
+    }
+
+    @Test
+    void testWindowTimerFlushes() {
+        BatchingSqsProducer producer = new BatchingSqsProducer(mockSqs, "https://queue", 5, 10);
+        // Never answered, so only the window sends the next one
+        busy(producer);
+
+        assertEquals("sqs-m0", producer.send("m0", Map.of()).join());
+    }
+
+    @Test
+    void testFailedEntryOnlyFailsItsCaller() {
+        BatchingSqsProducer producer = new BatchingSqsProducer(mockSqs, "https://queue", 60_000, 10);
+        busy(producer);
+        doReturn(CompletableFuture.completedFuture(SendMessageBatchResponse.builder()
+                        .successful(SendMessageBatchResultEntry.builder().id("0").messageId("sqs-0").build())
+                        .failed(BatchResultErrorEntry.builder().id("1").code("InvalidMessageContents").message("bad").build())
+                        .build()))
+                .when(mockSqs).sendMessageBatch(any(SendMessageBatchRequest.class));
+
+        var ok = producer.send("good", Map.of());
+        var bad = producer.send("bad", Map.of());
+        producer.close();
+
+        assertEquals("sqs-0", ok.join());
+        var error = assertThrows(CompletionException.class, bad::join);
+        assertInstanceOf(SqsException.class, error.getCause());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.interviews;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CappedTeeInputStreamTest {
+
+    @Test
+    void testPassesEverythingThroughAndCapturesOnlyTheHead() throws IOException {
+        byte[] payload = "{\"rawPath\":\"/ping\",\"body\":\"0123456789\"}".getBytes(StandardCharsets.UTF_8);
+        CappedTeeInputStream tee = new CappedTeeInputStream(new ByteArrayInputStream(payload), 11);
+
+        byte[] read = tee.readAllBytes();
+
+        assertArrayEquals(payload, read);
+        assertEquals("{\"rawPath\":... (" + payload.length + " bytes, truncated)", tee.captured());
+    }
+
+    @Test
+    void testSmallPayloadIsCapturedWhole() throws IOException {
+        CappedTeeInputStream tee = new CappedTeeInputStream(
+                new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), 1024);
+
+        assertEquals('{', tee.read());
+        assertEquals('}', tee.read());
+        assertEquals(-1, tee.read());
+        assertEquals("{}", tee.captured());
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
@@ -18,7 +19,9 @@ import software.amazon.awssdk.services.sfn.SfnClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
@@ -103,5 +106,69 @@ public class InterviewControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.maxSum", is(0)));
     }
-}
 
+    @Test
+    void testGetSlidingWindow_pastIntRange_doesNotOverflow() throws Exception {
+        mockMvc.perform(get("/api/sliding-window")
+                        .param("numbers", "2147483647,2147483647")
+                        .param("windowSize", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxSum", is(4294967294L)));
+    }
+
+    @Test
+    void testGetSlidingWindow_aggregates() throws Exception {
+        mockMvc.perform(get("/api/sliding-window")
+                        .param("numbers", "1,3,-1,-3,5")
+                        .param("windowSize", "3")
+                        .param("aggregates", "sums,min,max"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxSum", is(3)))
+                .andExpect(jsonPath("$.sums", contains(3, -1, 1)))
+                .andExpect(jsonPath("$.min", contains(-1, -3, -3)))
+                .andExpect(jsonPath("$.max", contains(3, 3, 5)));
+    }
+
+    @Test
+    void testGetSlidingWindow_badNumber_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sliding-window")
+                        .param("numbers", "1,two,3")
+                        .param("windowSize", "2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPostSlidingWindow_jsonBody() throws Exception {
+        mockMvc.perform(post("/api/sliding-window")
+                        .param("windowSize", "3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 3, 5, 7, 9]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxSum", is(21)));
+    }
+
+    @Test
+    void testPostSlidingWindow_textBody() throws Exception {
+        mockMvc.perform(post("/api/sliding-window")
+                        .param("windowSize", "2")
+                        .param("aggregates", "averages")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("1 2\n3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxSum", is(5)))
+                .andExpect(jsonPath("$.averages", contains(1.5, 2.5)));
+    }
+
+    @Test
+    void testPostSlidingWindow_int32Body() throws Exception {
+        java.nio.ByteBuffer body = java.nio.ByteBuffer.allocate(20).order(java.nio.ByteOrder.LITTLE_ENDIAN)
+                .putInt(1).putInt(3).putInt(5).putInt(7).putInt(9);
+
+        mockMvc.perform(post("/api/sliding-window")
+                        .param("windowSize", "3")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(body.array()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxSum", is(21)));
+    }
+}
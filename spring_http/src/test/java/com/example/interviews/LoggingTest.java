@@ -0,0 +1,50 @@
+package com.example.interviews;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import com.example.interviews.logging.SamplingFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggingTest {
+
+    @Test
+    void testSamplingKeepsOrDropsWholeInvocations() {
+        SamplingFilter filter = new SamplingFilter();
+        filter.setRate(0.5);
+
+        int kept = 0;
+        for (int i = 0; i < 1_000; i++) {
+            String requestId = UUID.randomUUID().toString();
+            FilterReply first = filter.decide(event(Level.INFO, requestId));
+            assertEquals(first, filter.decide(event(Level.DEBUG, requestId)));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(event(Level.WARN, requestId)));
+            if (first == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertTrue(kept > 400 && kept < 600, "kept " + kept);
+    }
+
+    @Test
+    void testRateZeroDropsEverythingBelowWarn() {
+        SamplingFilter filter = new SamplingFilter();
+        filter.setRate(0);
+
+        assertEquals(FilterReply.DENY, filter.decide(event(Level.INFO, "request-1")));
+        assertEquals(FilterReply.DENY, filter.decide(event(Level.INFO, null)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(Level.ERROR, "request-1")));
+    }
+
+    private static LoggingEvent event(Level level, String requestId) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setMDCPropertyMap(requestId == null ? Map.of() : Map.of(SamplingFilter.CORRELATION_KEY, requestId));
+        return event;
+    }
+}
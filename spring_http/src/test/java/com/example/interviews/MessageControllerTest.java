@@ -0,0 +1,346 @@
+package com.example.interviews;
+
+import com.example.interviews.cache.InMemoryResultCache;
+import com.example.interviews.controller.MessageController;
+import com.example.interviews.models.CachedResult;
+import com.example.interviews.models.SendRequest;
+import com.example.interviews.sqs.BatchingSqsProducer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MessageControllerTest {
+
+    private SqsAsyncClient mockSqs;
+    private DynamoDbClient mockDynamo;
+    private DynamoDbAsyncClient mockDynamoAsync;
+    private MessageController controller;
+
+    @BeforeEach
+    void setup() {
+        mockSqs = mock(SqsAsyncClient.class);
+        mockDynamo = mock(DynamoDbClient.class);
+        mockDynamoAsync = mock(DynamoDbAsyncClient.class);
+        controller = new MessageController(new BatchingSqsProducer(mockSqs, "https://queue", 1, 10), mockDynamo, mockDynamoAsync,
+                new InMemoryResultCache(100, 60_000), "message-broker", false, 20, false);
+    }
+
+    @Test
+    void testSendStartsBothWritesTogetherWithOneId() {
+        CompletableFuture<PutItemResponse> recorded = new CompletableFuture<>();
+        when(mockDynamoAsync.putItem(any(PutItemRequest.class))).thenReturn(recorded);
+        when(mockSqs.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(SendMessageBatchResponse.builder()
+                        .successful(SendMessageBatchResultEntry.builder().id("0").messageId("sqs-assigned").build())
+                        .build()));
+
+        var future = controller.send(new SendRequest("matt", "10"));
+
+        // The message is queued while the REQUEST put is still in flight, but the 202 waits for both
+        var sqsRequest = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqs, timeout(1_000)).sendMessageBatch(sqsRequest.capture());
+        assertFalse(future.isDone());
+
+        recorded.complete(PutItemResponse.builder().build());
+        var response = future.join();
+
+        var putRequest = ArgumentCaptor.forClass(PutItemRequest.class);
+        verify(mockDynamoAsync).putItem(putRequest.capture());
+        String messageId = sqsRequest.getValue().entries().get(0).messageAttributes().get("MessageId").stringValue();
+
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals("/messages/" + messageId, response.getHeaders().getLocation().toString());
+        assertEquals(messageId, putRequest.getValue().item().get("MessageId").s());
+    }
+
+    @Test
+    void testSendFailsWhenTheRequestIsNotStored() {
+        when(mockDynamoAsync.putItem(any(PutItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("dynamo down")));
+        when(mockSqs.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(SendMessageBatchResponse.builder()
+                        .successful(SendMessageBatchResultEntry.builder().id("0").messageId("sqs-assigned").build())
+                        .build()));
+
+        var future = controller.send(new SendRequest("matt", "10"));
+
+        assertThrows(CompletionException.class, future::join);
+        verify(mockDynamoAsync, never()).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    @Test
+    void testSendPassesOperationOnlyWhenGiven() {
+        when(mockSqs.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(SendMessageBatchResponse.builder()
+                        .successful(SendMessageBatchResultEntry.builder().id("0").messageId("sqs-assigned").build())
+                        .build()));
+        when(mockDynamoAsync.putItem(any(PutItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+
+        controller.send(new SendRequest("matt", "1,2,3", "stats")).join();
+        controller.send(new SendRequest("matt", "10")).join();
+
+        var captor = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqs, times(2)).sendMessageBatch(captor.capture());
+        var withOperation = captor.getAllValues().get(0).entries().get(0).messageAttributes();
+        var withoutOperation = captor.getAllValues().get(1).entries().get(0).messageAttributes();
+        assertEquals("stats", withOperation.get("Operation").stringValue());
+        assertFalse(withoutOperation.containsKey("Operation"));
+    }
+
+    @Test
+    void testSendRemovesRequestWhenQueueFails() {
+        when(mockSqs.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("sqs down")));
+        when(mockDynamoAsync.putItem(any(PutItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+        when(mockDynamoAsync.deleteItem(any(DeleteItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteItemResponse.builder().build()));
+
+        var future = controller.send(new SendRequest("matt", "10"));
+
+        assertThrows(CompletionException.class, future::join);
+        var delete = ArgumentCaptor.forClass(DeleteItemRequest.class);
+        verify(mockDynamoAsync).deleteItem(delete.capture());
+        assertEquals("REQUEST", delete.getValue().key().get("RecordType").s());
+    }
+
+    @Test
+    void testSendReportsTheQueueFailureEvenWhenTheCleanupFails() {
+        when(mockSqs.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("sqs down")));
+        when(mockDynamoAsync.putItem(any(PutItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+        when(mockDynamoAsync.deleteItem(any(DeleteItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("dynamo down")));
+
+        var future = controller.send(new SendRequest("matt", "10"));
+
+        var error = assertThrows(CompletionException.class, future::join);
+        assertFalse(String.valueOf(error.getMessage()).contains("dynamo down"));
+    }
+
+    @Test
+    void testStatusPending() {
+        stubStatusReads(List.of());
+
+        var response = controller.status("m-1", "matt", 0);
+
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals(Map.of("status", "PENDING"), response.getBody());
+    }
+
+    @Test
+    void testStatusNeverReadsTheRequestPayload() {
+        stubStatusReads(List.of());
+
+        controller.status("m-1", "matt", 0);
+
+        var get = ArgumentCaptor.forClass(GetItemRequest.class);
+        var batch = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(mockDynamoAsync, times(1)).getItem(get.capture());
+        verify(mockDynamoAsync, times(1)).batchGetItem(batch.capture());
+        verify(mockDynamo, never()).query(any(QueryRequest.class));
+
+        assertEquals("REQUEST", get.getValue().key().get("RecordType").s());
+        assertEquals(List.of("ownerId"), List.copyOf(get.getValue().expressionAttributeNames().values()));
+        assertFalse(get.getValue().consistentRead());
+
+        KeysAndAttributes outcomes = batch.getValue().requestItems().get("message-broker");
+        assertEquals(List.of("RESULT", "CANCELLED"),
+                outcomes.keys().stream().map(key -> key.get("RecordType").s()).toList());
+        assertTrue(outcomes.expressionAttributeNames().containsValue("payload"));
+        assertFalse(outcomes.expressionAttributeNames().containsValue("cancelledAt"));
+        assertFalse(outcomes.consistentRead());
+    }
+
+    @Test
+    void testStatusUnknownMessage() {
+        when(mockDynamoAsync.getItem(any(GetItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+        when(mockDynamoAsync.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(BatchGetItemResponse.builder().build()));
+
+        assertThrows(MessageController.ResourceNotFoundException.class, () -> controller.status("m-1", "matt", 0));
+    }
+
+    @Test
+    void testStatusFindsAResultBeforeItsRequest() {
+        when(mockDynamoAsync.getItem(any(GetItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+        when(mockDynamoAsync.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(BatchGetItemResponse.builder()
+                        .responses(Map.of("message-broker", List.of(Map.of(
+                                "MessageId", AttributeValue.builder().s("m-1").build(),
+                                "RecordType", AttributeValue.builder().s("RESULT").build(),
+                                "ownerId", AttributeValue.builder().s("matt").build(),
+                                "payload", AttributeValue.builder().s("2.3").build(),
+                                "completedAt", AttributeValue.builder().n("2000").build()))))
+                        .build()));
+
+        assertEquals(200, controller.status("m-1", "matt", 0).getStatusCode().value());
+        assertEquals(404, controller.status("m-2", "someone-else", 0).getStatusCode().value());
+    }
+
+    @Test
+    void testStatusWrongOwner() {
+        stubStatusReads(List.of());
+
+        var response = controller.status("m-1", "someone-else", 0);
+
+        assertEquals(404, response.getStatusCode().value());
+    }
+
+    @Test
+    void testStatusWaitReturnsResultAsSoonAsItLands() {
+        Map<String, AttributeValue> result = Map.of(
+                "MessageId", AttributeValue.builder().s("m-1").build(),
+                "RecordType", AttributeValue.builder().s("RESULT").build(),
+                "payload", AttributeValue.builder().s("2.3").build(),
+                "completedAt", AttributeValue.builder().n("2000").build()
+        );
+        stubStatusReads(List.of(), List.of(result));
+
+        var response = controller.status("m-1", "matt", 5);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(Map.of("resultData", "2.3", "completedAt", 2000L), response.getBody());
+        verify(mockDynamoAsync, times(2)).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    @Test
+    void testStatusRepeatedAfterResultIsServedFromCache() {
+        stubStatusReads(List.of(Map.of(
+                "MessageId", AttributeValue.builder().s("m-1").build(),
+                "RecordType", AttributeValue.builder().s("RESULT").build(),
+                "payload", AttributeValue.builder().s("2.3").build(),
+                "completedAt", AttributeValue.builder().n("2000").build())));
+
+        var first = controller.status("m-1", "matt", 0);
+        var second = controller.status("m-1", "matt", 0);
+        var stranger = controller.status("m-1", "someone-else", 0);
+
+        assertEquals(200, second.getStatusCode().value());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals(404, stranger.getStatusCode().value());
+        verify(mockDynamoAsync, times(1)).getItem(any(GetItemRequest.class));
+        assertEquals(2, controller.cacheStats().hits());
+    }
+
+    /**
+     * A REQUEST owned by matt, and each status read in turn finding these RESULT/CANCELLED items
+     */
+    @SafeVarargs
+    private void stubStatusReads(List<Map<String, AttributeValue>>... outcomes) {
+        when(mockDynamoAsync.getItem(any(GetItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder()
+                        .item(Map.of("ownerId", AttributeValue.builder().s("matt").build()))
+                        .build()));
+        var stubbing = when(mockDynamoAsync.batchGetItem(any(BatchGetItemRequest.class)));
+        for (List<Map<String, AttributeValue>> items : outcomes) {
+            stubbing = stubbing.thenReturn(CompletableFuture.completedFuture(BatchGetItemResponse.builder()
+                    .responses(Map.of("message-broker", items))
+                    .build()));
+        }
+    }
+
+    @Test
+    void testCancelIsOneConditionalTransaction() {
+        var response = controller.cancel("m-1", "matt");
+
+        assertEquals(204, response.getStatusCode().value());
+        var captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(mockDynamo).transactWriteItems(captor.capture());
+        List<TransactWriteItem> items = captor.getValue().transactItems();
+        assertEquals("REQUEST", items.get(0).conditionCheck().key().get("RecordType").s());
+        assertEquals("matt", items.get(0).conditionCheck().expressionAttributeValues().get(":owner").s());
+        assertEquals("RESULT", items.get(1).conditionCheck().key().get("RecordType").s());
+        assertEquals("CANCELLED", items.get(2).put().item().get("RecordType").s());
+        verify(mockDynamo, never()).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void testCancelAnswersFromTheFailedCondition() {
+        when(mockDynamo.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenThrow(cancelled("ConditionalCheckFailed", "None", "None"))
+                .thenThrow(cancelled("None", "ConditionalCheckFailed", "None"));
+
+        assertEquals(404, controller.cancel("m-1", "someone-else").getStatusCode().value());
+        assertEquals(409, controller.cancel("m-1", "matt").getStatusCode().value());
+    }
+
+    private static TransactionCanceledException cancelled(String... codes) {
+        return TransactionCanceledException.builder()
+                .cancellationReasons(Arrays.stream(codes)
+                        .map(code -> CancellationReason.builder().code(code).build())
+                        .toList())
+                .build();
+    }
+
+    @Test
+    void testResultCacheEvictsBySizeAndTtl() {
+        var bySize = new InMemoryResultCache(1, 60_000);
+        bySize.put("a", new CachedResult("matt", Map.of("status", "CANCELLED")));
+        bySize.put("b", new CachedResult("matt", Map.of("status", "CANCELLED")));
+        assertTrue(bySize.get("a").isEmpty());
+        assertTrue(bySize.get("b").isPresent());
+        assertEquals(1, bySize.stats().evictions());
+
+        var byTtl = new InMemoryResultCache(10, 0);
+        byTtl.put("a", new CachedResult("matt", Map.of("status", "CANCELLED")));
+        assertTrue(byTtl.get("a").isEmpty());
+        assertEquals(1, byTtl.stats().evictions());
+        assertEquals(0, byTtl.stats().size());
+    }
+
+    @Test
+    void testListInflightQueriesOwnerIndexAndReturnsCursor() {
+        Map<String, AttributeValue> item = Map.of(
+                "MessageId", AttributeValue.builder().s("m-1").build(),
+                "RecordType", AttributeValue.builder().s("REQUEST").build(),
+                "ownerId", AttributeValue.builder().s("matt").build(),
+                "createdAt", AttributeValue.builder().n("1000").build()
+        );
+        when(mockDynamo.query(any(QueryRequest.class)))
+                .thenReturn(QueryResponse.builder().items(List.of(item)).lastEvaluatedKey(item).build());
+
+        var response = controller.listInflight("matt", 1, null);
+
+        assertEquals(1, response.getBody().size());
+        String cursor = response.getHeaders().getFirst("X-Next-Cursor");
+        assertNotNull(cursor);
+
+        controller.listInflight("matt", 1, cursor);
+
+        var captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(mockDynamo, times(2)).query(captor.capture());
+        QueryRequest second = captor.getAllValues().get(1);
+        assertEquals(MessageController.OWNER_INDEX, second.indexName());
+        assertEquals(item, second.exclusiveStartKey());
+        verify(mockDynamo, never()).scan(any(ScanRequest.class));
+    }
+
+    @Test
+    void testListInflightRejectsBadCursor() {
+        var response = controller.listInflight("matt", 10, "not a cursor!");
+
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(mockDynamo);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.interviews;
+
+import com.example.interviews.priming.PrimingInterceptor;
+import com.example.interviews.priming.RequestPrimer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestPrimerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSendsAnHttpApiEventPerRouteForEachIteration() {
+        List<JsonNode> events = new ArrayList<>();
+        RequestPrimer primer = new RequestPrimer((event, response) -> events.add(objectMapper.readTree(event)), 2);
+
+        int primed = primer.prime(RequestPrimer.routes());
+
+        assertEquals(RequestPrimer.routes().size() * 2, primed);
+        assertEquals(primed, events.size());
+        JsonNode post = events.stream()
+                .filter(e -> e.at("/requestContext/http/method").asText().equals("POST"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("2.0", post.path("version").asText());
+        assertEquals("/messages", post.path("rawPath").asText());
+        assertEquals("application/json", post.at("/headers/content-type").asText());
+        assertTrue(post.path("body").asText().contains(RequestPrimer.PRIMING_OWNER));
+    }
+
+    @Test
+    void testOneFailingRouteDoesNotStopTheRest() {
+        List<String> paths = new ArrayList<>();
+        RequestPrimer primer = new RequestPrimer((event, response) -> {
+            String path = objectMapper.readTree(event).path("rawPath").asText();
+            paths.add(path);
+            if (path.equals("/ping")) {
+                throw new IOException("boom");
+            }
+        }, 1);
+
+        int primed = primer.prime(RequestPrimer.routes());
+
+        assertEquals(RequestPrimer.routes().size(), paths.size());
+        assertEquals(paths.size() - 1, primed);
+    }
+
+    @Test
+    void testStubbingIsOnlyActiveInsideTheTask() {
+        PrimingInterceptor.stubbed(() -> assertThrows(PrimingInterceptor.PrimingStubException.class,
+                () -> PrimingInterceptor.INSTANCE.beforeTransmission(null, null)));
+
+        assertDoesNotThrow(() -> PrimingInterceptor.INSTANCE.beforeTransmission(null, null));
+    }
+}
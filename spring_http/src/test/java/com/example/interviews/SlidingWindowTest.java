@@ -0,0 +1,114 @@
+package com.example.interviews;
+
+import com.example.interviews.window.LongSeries;
+import com.example.interviews.window.SeriesParser;
+import com.example.interviews.window.SlidingWindow;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowTest {
+
+    private static final long[] VALUES = {4, -2, 7, 7, 1, -5, 3};
+
+    @Test
+    void testAggregatesMatchBruteForce() {
+        int n = VALUES.length;
+        for (int window = 1; window <= n; window++) {
+            long[] sums = new long[n - window + 1];
+            long[] minima = new long[sums.length];
+            long[] maxima = new long[sums.length];
+            for (int start = 0; start < sums.length; start++) {
+                long[] slice = Arrays.copyOfRange(VALUES, start, start + window);
+                sums[start] = Arrays.stream(slice).sum();
+                minima[start] = Arrays.stream(slice).min().orElseThrow();
+                maxima[start] = Arrays.stream(slice).max().orElseThrow();
+            }
+
+            assertArrayEquals(sums, SlidingWindow.sums(VALUES, n, window));
+            assertArrayEquals(minima, SlidingWindow.minima(VALUES, n, window));
+            assertArrayEquals(maxima, SlidingWindow.maxima(VALUES, n, window));
+            assertEquals(Arrays.stream(sums).max().orElseThrow(), SlidingWindow.maxSum(VALUES, n, window));
+        }
+        assertArrayEquals(new double[]{4.0, 3.25, 2.5, 1.5}, SlidingWindow.averages(VALUES, n, 4));
+    }
+
+    @Test
+    void testSumsPastIntRangeDoNotWrap() {
+        long[] values = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+
+        assertEquals(3L * Integer.MAX_VALUE, SlidingWindow.maxSum(values, 3, 3));
+        assertThrows(ArithmeticException.class,
+                () -> SlidingWindow.maxSum(new long[]{Long.MAX_VALUE, 1}, 2, 2));
+    }
+
+    @Test
+    void testParallelMaxSumMatchesSequential() {
+        long[] values = new java.util.Random(42).longs(300_000, -1_000_000, 1_000_000).toArray();
+
+        for (int window : new int[]{1, 7, 65_537, 300_000}) {
+            assertEquals(SlidingWindow.maxSumSequential(values, values.length, window),
+                    SlidingWindow.maxSumParallel(values, values.length, window), "window " + window);
+        }
+    }
+
+    @Test
+    void testOnlyTheFirstSizeValuesAreUsed() {
+        LongSeries series = new LongSeries(1);
+        series.add(1);
+        series.add(2);
+        series.add(3);
+
+        assertTrue(series.values().length >= 3);
+        assertEquals(5, SlidingWindow.maxSum(series.values(), series.size(), 2));
+    }
+
+    @Test
+    void testParseCsv() throws IOException {
+        LongSeries fromText = SeriesParser.parseCsv(" 1, -2,+3\n4,,9223372036854775807,-9223372036854775808 ");
+        LongSeries fromStream = SeriesParser.parseCsv(new ByteArrayInputStream(
+                "1,-2 3".getBytes(StandardCharsets.US_ASCII)));
+
+        assertArrayEquals(new long[]{1, -2, 3, 4, Long.MAX_VALUE, Long.MIN_VALUE},
+                Arrays.copyOf(fromText.values(), fromText.size()));
+        assertArrayEquals(new long[]{1, -2, 3}, Arrays.copyOf(fromStream.values(), fromStream.size()));
+        assertEquals(0, SeriesParser.parseCsv("").size());
+        assertThrows(IllegalArgumentException.class, () -> SeriesParser.parseCsv("1,x"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesParser.parseCsv("1,-,2"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesParser.parseCsv("9223372036854775808"));
+    }
+
+    @Test
+    void testParseLittleEndian() throws IOException {
+        java.nio.ByteBuffer int32 = java.nio.ByteBuffer.allocate(12).order(java.nio.ByteOrder.LITTLE_ENDIAN)
+                .putInt(1).putInt(-2).putInt(Integer.MAX_VALUE);
+        java.nio.ByteBuffer int64 = java.nio.ByteBuffer.allocate(16).order(java.nio.ByteOrder.LITTLE_ENDIAN)
+                .putLong(3_000_000_000L).putLong(-4);
+
+        LongSeries ints = SeriesParser.parseLittleEndian(new ByteArrayInputStream(int32.array()), 12, 4);
+        LongSeries longs = SeriesParser.parseLittleEndian(new ByteArrayInputStream(int64.array()), -1, 8);
+
+        assertArrayEquals(new long[]{1, -2, Integer.MAX_VALUE}, Arrays.copyOf(ints.values(), ints.size()));
+        assertArrayEquals(new long[]{3_000_000_000L, -4}, Arrays.copyOf(longs.values(), longs.size()));
+        assertThrows(IllegalArgumentException.class,
+                () -> SeriesParser.parseLittleEndian(new ByteArrayInputStream(new byte[6]), 6, 4));
+    }
+
+    @Test
+    void testParseJsonArray() throws IOException {
+        LongSeries series = SeriesParser.parseJsonArray(new ByteArrayInputStream(
+                "[1, -2, 3000000000]".getBytes(StandardCharsets.UTF_8)), new JsonFactory());
+
+        assertArrayEquals(new long[]{1, -2, 3_000_000_000L}, Arrays.copyOf(series.values(), series.size()));
+        assertThrows(IllegalArgumentException.class, () -> SeriesParser.parseJsonArray(new ByteArrayInputStream(
+                "[1, 2.5]".getBytes(StandardCharsets.UTF_8)), new JsonFactory()));
+        assertThrows(IllegalArgumentException.class, () -> SeriesParser.parseJsonArray(new ByteArrayInputStream(
+                "{\"numbers\": [1]}".getBytes(StandardCharsets.UTF_8)), new JsonFactory()));
+    }
+}
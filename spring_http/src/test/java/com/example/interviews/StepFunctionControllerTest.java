@@ -1,9 +1,12 @@
 package com.example.interviews;
 
 import com.example.interviews.controller.StepFunctionController;
+import com.example.interviews.models.SagaOutcome;
+import com.example.interviews.saga.InMemorySagaCompletions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
+import org.springframework.core.task.SyncTaskExecutor;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
 import software.amazon.awssdk.services.cloudwatchlogs.model.GetLogEventsRequest;
 import software.amazon.awssdk.services.cloudwatchlogs.model.GetLogEventsResponse;
@@ -27,7 +30,8 @@ class StepFunctionControllerTest {
     void setup() {
         mockSfnClient = mock(SfnClient.class);
         mockLogsClient = mock(CloudWatchLogsClient.class);
-        controller = new StepFunctionController(mockSfnClient, mockLogsClient);
+        controller = new StepFunctionController(mockSfnClient, mockLogsClient, new InMemorySagaCompletions(100),
+                new SyncTaskExecutor());
     }
 
     @Test
@@ -81,7 +85,7 @@ class StepFunctionControllerTest {
     }
 
     @Test
-    void testPollForCompletionCompleted() throws InterruptedException {
+    void testPollForCompletionCompleted() {
         DescribeExecutionResponse done = DescribeExecutionResponse.builder()
                 .status(ExecutionStatus.SUCCEEDED)
                 .output("{\"msg\":\"done\"}")
@@ -90,11 +94,90 @@ class StepFunctionControllerTest {
         when(mockSfnClient.describeExecution(any(DescribeExecutionRequest.class)))
                 .thenReturn(done);
 
-        var response = controller.pollForCompletion("arn:aws:states:::example");
+        var response = controller.pollForCompletion("arn:aws:states:::example").join();
         Map result = (Map) response.getBody();
         assertEquals("SUCCEEDED", result.get("status"));
     }
 
+    @Test
+    void testPollForCompletionWakesOnStatusChangeEvent() {
+        when(mockSfnClient.describeExecution(any(DescribeExecutionRequest.class)))
+                .thenReturn(DescribeExecutionResponse.builder().status(ExecutionStatus.RUNNING).build())
+                .thenReturn(DescribeExecutionResponse.builder().status(ExecutionStatus.FAILED).build());
+
+        var pending = controller.pollForCompletion("arn:aws:states:::example");
+        assertFalse(pending.isDone());
+
+        var ack = controller.executionStatusChanged(statusChange("arn:aws:states:::example", "FAILED"));
+
+        assertEquals(204, ack.getStatusCode().value());
+        var response = pending.join();
+        Map result = (Map) response.getBody();
+        assertEquals("FAILED", result.get("status"));
+        assertNull(result.get("output"));
+        verify(mockSfnClient, times(2)).describeExecution(any(DescribeExecutionRequest.class));
+    }
+
+    @Test
+    void testStatusChangeEventIsOnlyAHint() {
+        when(mockSfnClient.describeExecution(any(DescribeExecutionRequest.class)))
+                .thenReturn(DescribeExecutionResponse.builder().status(ExecutionStatus.RUNNING).build());
+
+        var pending = controller.pollForCompletion("arn:aws:states:::example");
+        // Claims success with an output, but DescribeExecution still says RUNNING
+        controller.executionStatusChanged(Map.of(
+                "detail-type", "Step Functions Execution Status Change",
+                "detail", Map.of(
+                        "executionArn", "arn:aws:states:::example",
+                        "status", "SUCCEEDED",
+                        "output", "{\"forged\":true}"
+                )));
+        // Nobody polls this one, so it isn't even looked up
+        controller.executionStatusChanged(statusChange("arn:aws:states:::other", "SUCCEEDED"));
+
+        assertFalse(pending.isDone());
+        verify(mockSfnClient, times(2)).describeExecution(any(DescribeExecutionRequest.class));
+        verify(mockSfnClient, never()).describeExecution(
+                DescribeExecutionRequest.builder().executionArn("arn:aws:states:::other").build());
+    }
+
+    @Test
+    void testAwaitedExecutionIsNotEvicted() {
+        var completions = new InMemorySagaCompletions(1);
+        var waiting = completions.await("arn:aws:states:::polled");
+
+        completions.complete("arn:aws:states:::a", new SagaOutcome("SUCCEEDED", null));
+        completions.complete("arn:aws:states:::b", new SagaOutcome("SUCCEEDED", null));
+
+        assertTrue(completions.isAwaited("arn:aws:states:::polled"));
+        completions.complete("arn:aws:states:::polled", new SagaOutcome("FAILED", null));
+        assertEquals("FAILED", waiting.join().status());
+    }
+
+    @Test
+    void testTimedOutWaitNoLongerCounts() {
+        var completions = new InMemorySagaCompletions(1);
+        var waiting = completions.await("arn:aws:states:::polled");
+
+        // What pollForCompletion's timeout does
+        waiting.complete(null);
+        assertFalse(completions.isAwaited("arn:aws:states:::polled"));
+
+        completions.complete("arn:aws:states:::a", new SagaOutcome("SUCCEEDED", null));
+        var late = completions.await("arn:aws:states:::polled");
+        completions.complete("arn:aws:states:::polled", new SagaOutcome("SUCCEEDED", null));
+        assertEquals("SUCCEEDED", late.join().status());
+    }
+
+    private static Map<String, Object> statusChange(String executionArn, String status) {
+        return Map.of(
+                "detail-type", "Step Functions Execution Status Change",
+                "detail", Map.of(
+                        "executionArn", executionArn,
+                        "status", status
+                ));
+    }
+
     @Test
     void testGetLogs() {
         List<OutputLogEvent> events = List.of(
@@ -111,22 +194,60 @@ class StepFunctionControllerTest {
     }
 
     @Test
-    void testExecutionHistory() {
-        HistoryEvent event = HistoryEvent.builder()
+    void testExecutionHistoryStreamsEveryPageAsNdjson() throws Exception {
+        HistoryEvent entered = HistoryEvent.builder()
                 .id(1L)
                 .timestamp(java.time.Instant.now())
                 .type(HistoryEventType.TASK_STATE_ENTERED)
+                .stateEnteredEventDetails(StateEnteredEventDetails.builder().name("WriteDb").input("{\"big\":1}").build())
+                .build();
+        HistoryEvent failed = HistoryEvent.builder()
+                .id(2L)
+                .previousEventId(1L)
+                .timestamp(java.time.Instant.now())
+                .type(HistoryEventType.EXECUTION_FAILED)
+                .executionFailedEventDetails(ExecutionFailedEventDetails.builder().error("Boom").cause("why").build())
                 .build();
 
-        GetExecutionHistoryResponse history = GetExecutionHistoryResponse.builder()
-                .events(List.of(event))
+        when(mockSfnClient.getExecutionHistory((GetExecutionHistoryRequest) any()))
+                .thenReturn(GetExecutionHistoryResponse.builder().events(List.of(entered)).nextToken("page-2").build())
+                .thenReturn(GetExecutionHistoryResponse.builder().events(List.of(failed)).build());
+
+        var response = controller.executionHistory("arn:aws:states:::example", 1000, null);
+        var out = new java.io.ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        String[] lines = out.toString(java.nio.charset.StandardCharsets.UTF_8).strip().split("\n");
+        var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
+        assertEquals(2, lines.length);
+        assertEquals("WriteDb", mapper.readTree(lines[0]).at("/details/name").asText());
+        assertFalse(lines[0].contains("big"));
+        assertEquals("Boom", mapper.readTree(lines[1]).at("/details/error").asText());
+        assertEquals(1, mapper.readTree(lines[1]).path("previousEventId").asLong());
+
+        var requests = org.mockito.ArgumentCaptor.forClass(GetExecutionHistoryRequest.class);
+        verify(mockSfnClient, times(2)).getExecutionHistory(requests.capture());
+        assertEquals("page-2", requests.getAllValues().get(1).nextToken());
+    }
+
+    @Test
+    void testExecutionHistoryStopsAtLimitWithNextToken() throws Exception {
+        HistoryEvent event = HistoryEvent.builder()
+                .id(1L)
+                .timestamp(java.time.Instant.now())
+                .type(HistoryEventType.TASK_STATE_ENTERED)
                 .build();
 
         when(mockSfnClient.getExecutionHistory((GetExecutionHistoryRequest) any()))
-                .thenReturn(history);
+                .thenReturn(GetExecutionHistoryResponse.builder().events(List.of(event)).nextToken("more").build());
+
+        var response = controller.executionHistory("arn:aws:states:::example", 1, null);
+        var out = new java.io.ByteArrayOutputStream();
+        response.getBody().writeTo(out);
 
-        var response = controller.executionHistory("arn:aws:states:::example");
-        List<?> historyList = (List<?>) response.getBody();
-        assertFalse(historyList.isEmpty());
+        String[] lines = out.toString(java.nio.charset.StandardCharsets.UTF_8).strip().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"nextToken\":\"more\"}", lines[1]);
+        verify(mockSfnClient, times(1)).getExecutionHistory((GetExecutionHistoryRequest) any());
     }
 }
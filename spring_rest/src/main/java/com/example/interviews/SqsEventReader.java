@@ -0,0 +1,64 @@
+package com.example.interviews;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls messageId and body out of each SQS record with the streaming parser, skipping everything else
+ * (attributes, md5s, event source...) without building a tree.
+ */
+public class SqsEventReader {
+
+    public record SqsRecord(String messageId, String body) { }
+
+    private final JsonFactory jsonFactory;
+
+    public SqsEventReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * @return the records, or null when the event is not an SQS event (no non-empty top level Records array)
+     * @throws IOException when the input is not JSON at all
+     */
+    public List<SqsRecord> read(byte[] event) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(event)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("Records".equals(field) && value == JsonToken.START_ARRAY) {
+                    List<SqsRecord> records = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        records.add(readRecord(parser));
+                    }
+                    return records.isEmpty() ? null : records;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    private static SqsRecord readRecord(JsonParser parser) throws IOException {
+        String messageId = null;
+        String body = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "messageId" -> messageId = parser.getValueAsString();
+                case "body" -> body = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return new SqsRecord(messageId, body);
+    }
+}
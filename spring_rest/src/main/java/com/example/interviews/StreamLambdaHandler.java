@@ -2,24 +2,46 @@ package com.example.interviews;
 
 
 import com.amazonaws.serverless.exceptions.ContainerInitializationException;
+import com.amazonaws.serverless.proxy.internal.LambdaContainerHandler;
 import com.amazonaws.serverless.proxy.model.AwsProxyRequest;
 import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
 import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class StreamLambdaHandler implements RequestStreamHandler {
     private static SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final SqsEventReader sqsEventReader = new SqsEventReader(objectMapper.getFactory());
+    private static final ObjectReader proxyRequestReader =
+            LambdaContainerHandler.getObjectMapper().readerFor(AwsProxyRequest.class);
+
+    // How many records of one batch go through Spring at the same time. 1 keeps the old one-at-a-time behaviour.
+    private static final int DISPATCH_CONCURRENCY =
+            Integer.parseInt(System.getenv().getOrDefault("SQS_DISPATCH_CONCURRENCY", "1"));
+    private static final ExecutorService dispatchPool = DISPATCH_CONCURRENCY > 1
+            ? Executors.newFixedThreadPool(DISPATCH_CONCURRENCY, runnable -> {
+                Thread thread = new Thread(runnable, "sqs-dispatch");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
 
     static {
         try {
@@ -40,58 +62,102 @@ public class StreamLambdaHandler implements RequestStreamHandler {
 //        handler.proxyStream(inputStream, outputStream, context);
 //    }
 
-//    @Override
-//    public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
-//            throws IOException {
-//
-//        // Read all input into a byte array
-//        byte[] inputBytes = inputStream.readAllBytes();
-//
-//        // Log the input (convert to String if appropriate, like assuming UTF-8)
-//        String inputString = new String(inputBytes, StandardCharsets.UTF_8);
-//        context.getLogger().log("Received input: " + inputString);
-//
-//        // Pass a new InputStream based on the bytes to handler
-//        InputStream newInputStream = new ByteArrayInputStream(inputBytes);
-//
-//        handler.proxyStream(newInputStream, outputStream, context);
-//    }
-
+    /**
+     * An SQS event has each record's body (an API Gateway request put on the queue) run through Spring, and gets an
+     * SQSBatchResponse back listing the records that failed, so only those are redelivered. Anything else is passed
+     * straight to Spring as an API Gateway event.
+     */
     @Override
     public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
             throws IOException {
         byte[] inputBytes = inputStream.readAllBytes();
 
-        // Log the original input
-        String inputString = new String(inputBytes, StandardCharsets.UTF_8);
-        context.getLogger().log("Original input: " + inputString);
-
-        // Parse JSON and extract body
-        // Parse JSON
-        JsonNode root;
+        List<SqsEventReader.SqsRecord> records;
         try {
-            root = objectMapper.readTree(inputBytes);
-            JsonNode records = root.path("Records");
-            if (!records.isArray() || records.isEmpty()) {
-                context.getLogger().log("SQS has no records");
-                // Pass a new InputStream based on the bytes to handler
-                InputStream newInputStream = new ByteArrayInputStream(inputBytes);
-
-                handler.proxyStream(newInputStream, outputStream, context);
-                return;
+            records = sqsEventReader.read(inputBytes);
+        } catch (IOException e) {
+            context.getLogger().log("Failed to parse input as JSON, assuming raw passthrough.");
+            records = null;
+        }
+
+        if (records == null) {
+            handler.proxyStream(new ByteArrayInputStream(inputBytes), outputStream, context);
+            return;
+        }
+
+        context.getLogger().log("Dispatching " + records.size() + " SQS records");
+        List<String> failed = dispatchAll(records, context);
+        writeBatchResponse(failed, outputStream);
+    }
+
+    private static List<String> dispatchAll(List<SqsEventReader.SqsRecord> records, Context context) {
+        List<String> failed = new ArrayList<>();
+        if (dispatchPool == null || records.size() == 1) {
+            for (SqsEventReader.SqsRecord record : records) {
+                if (!dispatch(record, context)) {
+                    failed.add(record.messageId());
+                }
             }
+            return failed;
+        }
 
-            String rawBody = records.get(0).path("body").asText();
-            context.getLogger().log("Raw body string: " + rawBody);
+        List<Future<Boolean>> results = new ArrayList<>(records.size());
+        for (SqsEventReader.SqsRecord record : records) {
+            results.add(dispatchPool.submit(() -> dispatch(record, context)));
+        }
+        for (int i = 0; i < records.size(); i++) {
+            boolean ok;
+            try {
+                ok = results.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ok = false;
+            } catch (ExecutionException e) {
+                ok = false;
+            }
+            if (!ok) {
+                failed.add(records.get(i).messageId());
+            }
+        }
+        return failed;
+    }
 
-            // Return as new InputStream
-            InputStream newInputStream = new ByteArrayInputStream(rawBody.getBytes(StandardCharsets.UTF_8));
-            handler.proxyStream(newInputStream, outputStream, context);
-        } catch (Exception e) {
-            context.getLogger().log("Failed to parse input as JSON, assuming raw passthrough.");
-            InputStream newInputStream = new ByteArrayInputStream(inputBytes);
-            handler.proxyStream(newInputStream, outputStream, context);
+    /**
+     * @return false when the record should be retried: it isn't an API Gateway request, or Spring answered 5xx
+     */
+    private static boolean dispatch(SqsEventReader.SqsRecord record, Context context) {
+        LambdaLogger logger = context.getLogger();
+        if (record.body() == null) {
+            logger.log("Record " + record.messageId() + " has no body");
+            return false;
         }
+        try {
+            AwsProxyRequest request = proxyRequestReader.readValue(record.body());
+            AwsProxyResponse response = handler.proxy(request, context);
+            if (response.getStatusCode() >= 500) {
+                logger.log("Record " + record.messageId() + " got " + response.getStatusCode());
+                return false;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.log("Record " + record.messageId() + " failed: " + e.getMessage());
+            return false;
+        }
+    }
 
+    private static void writeBatchResponse(List<String> failedMessageIds, OutputStream outputStream)
+            throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("batchItemFailures");
+            for (String messageId : failedMessageIds) {
+                generator.writeStartObject();
+                generator.writeStringField("itemIdentifier", messageId);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
     }
-}
\ No newline at end of file
+}
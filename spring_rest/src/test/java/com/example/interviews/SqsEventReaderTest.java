@@ -0,0 +1,47 @@
+package com.example.interviews;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqsEventReaderTest {
+
+    private final SqsEventReader reader = new SqsEventReader(new JsonFactory());
+
+    @Test
+    void testReadsEveryRecord() throws IOException {
+        String event = """
+                {"Records": [
+                  {"messageId": "m-1", "attributes": {"ApproximateReceiveCount": "1"},
+                   "body": "{\\"path\\":\\"/ping\\"}", "eventSource": "aws:sqs"},
+                  {"messageId": "m-2", "body": "{\\"path\\":\\"/pong\\"}", "messageAttributes": {}}
+                ]}
+                """;
+
+        List<SqsEventReader.SqsRecord> records = reader.read(event.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(List.of(
+                new SqsEventReader.SqsRecord("m-1", "{\"path\":\"/ping\"}"),
+                new SqsEventReader.SqsRecord("m-2", "{\"path\":\"/pong\"}")
+        ), records);
+    }
+
+    @Test
+    void testApiGatewayEventIsNotAnSqsEvent() throws IOException {
+        String event = """
+                {"resource": "/ping", "path": "/ping", "httpMethod": "GET", "headers": {"Accept": "*/*"}}
+                """;
+
+        assertNull(reader.read(event.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testEmptyRecordsIsNotAnSqsEvent() throws IOException {
+        assertNull(reader.read("{\"Records\": []}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
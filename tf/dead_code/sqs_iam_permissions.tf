@@ -26,6 +26,8 @@ resource "aws_lambda_event_source_mapping" "sqs_to_lambda" {
   event_source_arn = aws_sqs_queue.async_queue.arn
   function_name    = aws_lambda_function.compute.arn
   batch_size       = 1              # or more, depending on your use case
+  # StreamLambdaHandler reports failed records individually, needed once batch_size > 1
+  function_response_types = ["ReportBatchItemFailures"]
   enabled          = true
   # 1 for debugging, 2 or 3 for production
   # maximum_retry_attempts = 1 # not set here?
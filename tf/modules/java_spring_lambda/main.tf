@@ -12,7 +12,8 @@ resource "aws_lambda_function" "web_api" {
   filename      = "${path.module}/lambda_shim/main.zip"
 
   # Snapstart and Performance Tuning
-  timeout     = "6"
+  # Room for GET /messages/{id}?wait= long polls (app.messages.max-wait-seconds, 20 s) under the 30 s API Gateway limit
+  timeout     = "25"
   memory_size = "1024" # Cheapest (128 doesn't run at all!)
   architectures = ["arm64"] # Cheaper
   snap_start {
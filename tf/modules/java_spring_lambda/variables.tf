@@ -27,3 +27,9 @@ variable "dynamodb_table_name" {
   type    = string
   default = "message-broker"
 }
+
+variable "saga_remote_api_url" {
+  type        = string
+  description = "The partner API the saga calls and cancels. Empty makes those steps no-ops."
+  default     = ""
+}
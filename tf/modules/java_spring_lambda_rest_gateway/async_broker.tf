@@ -52,17 +52,24 @@ resource "aws_dynamodb_table" "broker" {
     type = "S"
   }
 
-  # For in-flight scans: ownerId + RecordType
+  # For listing in-flight requests: ownerId + createdAt
   attribute {
     name = "ownerId"
     type = "S"
   }
 
+  attribute {
+    name = "createdAt"
+    type = "N"
+  }
+
+  # Sparse: only REQUEST records have createdAt, so RESULT/CANCELLED never land in the index.
+  # Keys are all GET /messages needs, so don't pay to project the payload.
   global_secondary_index {
-    name               = "ownerId-recordType-index"
+    name               = "ownerId-createdAt-index"
     hash_key           = "ownerId"
-    range_key          = "RecordType"
-    projection_type    = "ALL"
+    range_key          = "createdAt"
+    projection_type    = "KEYS_ONLY"
   }
 
   tags = {
@@ -30,12 +30,15 @@ resource "aws_lambda_event_source_mapping" "trigger_worker_from_sqs" {
   maximum_batching_window_in_seconds = 30
   # 1 retry is good for debugging. 2 or 3 is good if you know that it succeeds 99% of the time and 1% of the time it fails but succeeds on retry.
   # maximum_retry_attempts = "1" # Not set here?
+
+  # The worker returns batchItemFailures, so only the failed messages in a batch go back on the queue
+  function_response_types = ["ReportBatchItemFailures"]
 }
 
 resource "aws_lambda_function" "async_worker" {
   function_name = local.worker_name
   role          = aws_iam_role.jbs_lambda_role.arn
-  handler       = "org.example.FunctionConfiguration::handleRequest" # var.lambda_entrypoint
+  handler       = "org.example.StreamFunctionConfiguration::handleRequest" # var.lambda_entrypoint
   runtime       = "java21"
   filename      = "${path.module}/lambda_shim/main.zip"
 
@@ -15,7 +15,8 @@ resource "aws_lambda_function" "compute" {
     mode = "Active"
   }
 
-  timeout = "6"
+  # Room for GET /messages/{id}?wait= long polls (app.messages.max-wait-seconds, 20 s) under the 29 s integration limit
+  timeout = "25"
   memory_size = "1024" # Cheapest
   architectures = ["arm64"] # Cheaper
   snap_start {
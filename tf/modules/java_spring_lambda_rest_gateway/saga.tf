@@ -1,3 +1,30 @@
+# One item per saga step that has happened: ExecutionId (PK) + Step (SK). The step handlers write each step and
+# its compensation conditionally, so Step Functions retries never apply either twice.
+resource "aws_dynamodb_table" "saga_ledger" {
+  name         = "saga-ledger-${local.saga_name_suffix}"
+  billing_mode = "PAY_PER_REQUEST"
+
+  hash_key  = "ExecutionId"
+  range_key = "Step"
+
+  attribute {
+    name = "ExecutionId"
+    type = "S"
+  }
+
+  attribute {
+    name = "Step"
+    type = "S"
+  }
+}
+
+locals {
+  saga_environment = {
+    SAGA_TABLE_NAME = aws_dynamodb_table.saga_ledger.name
+    REMOTE_API_URL  = var.saga_remote_api_url
+  }
+}
+
 # Reuse same code across four logical lambdas
 resource "aws_lambda_function" "write_db" {
   function_name = "write_db-${local.saga_name_suffix}"
@@ -10,6 +37,10 @@ resource "aws_lambda_function" "write_db" {
 
   filename      = "${path.module}/lambda_shim/main.zip"
 
+  environment {
+    variables = local.saga_environment
+  }
+
   tracing_config {
     mode = "Active"
   }
@@ -42,6 +73,10 @@ resource "aws_lambda_function" "unwrite_db" {
   filename         = aws_lambda_function.write_db.filename
   # source_code_hash = aws_lambda_function.write_db.source_code_hash
 
+  environment {
+    variables = local.saga_environment
+  }
+
   tracing_config {
     mode = "Active"
   }
@@ -72,6 +107,10 @@ resource "aws_lambda_function" "call_api" {
   filename         = aws_lambda_function.write_db.filename
   # source_code_hash = aws_lambda_function.write_db.source_code_hash
 
+  environment {
+    variables = local.saga_environment
+  }
+
   tracing_config {
     mode = "Active"
   }
@@ -100,6 +139,10 @@ resource "aws_lambda_function" "cancel_api" {
   filename         = aws_lambda_function.write_db.filename
   source_code_hash = aws_lambda_function.write_db.source_code_hash
 
+  environment {
+    variables = local.saga_environment
+  }
+
   tracing_config {
     mode = "Active"
   }
@@ -140,6 +183,27 @@ resource "aws_iam_role_policy_attachment" "lambda_basic" {
   policy_arn = "arn:aws:iam::aws:policy/service-role/AWSLambdaBasicExecutionRole"
 }
 
+resource "aws_iam_role_policy" "saga_ledger_policy" {
+  name = "saga_ledger_policy-${local.saga_name_suffix}"
+  role = aws_iam_role.lambda_exec.id
+
+  policy = jsonencode({
+    Version = "2012-10-17",
+    Statement = [
+      {
+        Effect = "Allow",
+        Action = [
+          "dynamodb:Query",
+          "dynamodb:PutItem",
+          "dynamodb:DeleteItem",
+          "dynamodb:ConditionCheckItem"
+        ],
+        Resource = aws_dynamodb_table.saga_ledger.arn
+      }
+    ]
+  })
+}
+
 # State Machine IAM Role
 resource "aws_iam_role" "sf_role" {
   name = "step_function_role-${local.saga_name_suffix}"
@@ -0,0 +1,47 @@
+package com.example.interviews.window;
+
+import java.util.Arrays;
+
+/**
+ * Growable long[] for numbers arriving one at a time from a parser. values() hands out the backing array, valid up
+ * to size(), so nothing is copied or boxed on the way to the window engine.
+ */
+public final class LongSeries {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private long[] values;
+    private int size;
+
+    public LongSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongSeries(int initialCapacity) {
+        this.values = new long[Math.max(1, initialCapacity)];
+    }
+
+    private LongSeries(long[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    public static LongSeries wrap(long[] values) {
+        return new LongSeries(values, values.length);
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    public long[] values() {
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+}
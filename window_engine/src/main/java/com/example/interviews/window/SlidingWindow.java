@@ -0,0 +1,170 @@
+package com.example.interviews.window;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Window aggregates over the first n values of a long[]. Sums are accumulated as long and fail with an
+ * ArithmeticException rather than wrap. Nothing is allocated apart from the returned arrays (and, for min/max, an
+ * int[windowSize] deque, and for a parallel maxSum, the fork/join tasks).
+ * <p>
+ * All methods expect 0 &lt; windowSize &lt;= n, see {@link #isValid}.
+ */
+public final class SlidingWindow {
+
+    // Below this many windows splitting costs more than it saves
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private SlidingWindow() {
+    }
+
+    public static boolean isValid(int n, int windowSize) {
+        return windowSize > 0 && windowSize <= n;
+    }
+
+    /**
+     * Sequential or {@link #maxSumParallel} depending on the input size and how many cores there are.
+     */
+    public static long maxSum(long[] values, int n, int windowSize) {
+        int windows = n - windowSize + 1;
+        if (windows >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            return maxSumParallel(values, n, windowSize);
+        }
+        return maxSumSequential(values, n, windowSize);
+    }
+
+    public static long maxSumSequential(long[] values, int n, int windowSize) {
+        return maxSumOfWindows(values, windowSize, 0, n - windowSize + 1);
+    }
+
+    /**
+     * Splits the window start positions into chunks on the common ForkJoinPool. A chunk reads windowSize - 1 values
+     * past its last start, so neighbouring chunks overlap by that much, and the answer is the max of the chunk maxes.
+     */
+    public static long maxSumParallel(long[] values, int n, int windowSize) {
+        int windows = n - windowSize + 1;
+        int parallelism = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        // Every chunk starts by summing a whole window, so chunks smaller than the window mostly redo that work
+        int chunk = Math.max(Math.max(MIN_CHUNK, windows / (parallelism * 4)), windowSize);
+        return ForkJoinPool.commonPool().invoke(new MaxSumTask(values, windowSize, 0, windows, chunk));
+    }
+
+    /**
+     * Max sum of the windows starting at fromStart (inclusive) to toStart (exclusive)
+     */
+    private static long maxSumOfWindows(long[] values, int windowSize, int fromStart, int toStart) {
+        long sum = 0;
+        for (int i = fromStart; i < fromStart + windowSize; i++) {
+            sum = Math.addExact(sum, values[i]);
+        }
+        long max = sum;
+        for (int start = fromStart + 1; start < toStart; start++) {
+            sum = Math.subtractExact(Math.addExact(sum, values[start + windowSize - 1]), values[start - 1]);
+            if (sum > max) {
+                max = sum;
+            }
+        }
+        return max;
+    }
+
+    private static final class MaxSumTask extends RecursiveTask<Long> {
+        private final long[] values;
+        private final int windowSize;
+        private final int fromStart;
+        private final int toStart;
+        private final int chunk;
+
+        MaxSumTask(long[] values, int windowSize, int fromStart, int toStart, int chunk) {
+            this.values = values;
+            this.windowSize = windowSize;
+            this.fromStart = fromStart;
+            this.toStart = toStart;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Long compute() {
+            if (toStart - fromStart <= chunk) {
+                return maxSumOfWindows(values, windowSize, fromStart, toStart);
+            }
+            int middle = (fromStart + toStart) >>> 1;
+            MaxSumTask left = new MaxSumTask(values, windowSize, fromStart, middle, chunk);
+            left.fork();
+            long right = new MaxSumTask(values, windowSize, middle, toStart, chunk).compute();
+            return Math.max(left.join(), right);
+        }
+    }
+
+    /**
+     * @return the sum of every window, n - windowSize + 1 of them
+     */
+    public static long[] sums(long[] values, int n, int windowSize) {
+        long[] sums = new long[n - windowSize + 1];
+        long sum = firstWindowSum(values, windowSize);
+        sums[0] = sum;
+        for (int end = windowSize; end < n; end++) {
+            sum = Math.subtractExact(Math.addExact(sum, values[end]), values[end - windowSize]);
+            sums[end - windowSize + 1] = sum;
+        }
+        return sums;
+    }
+
+    public static double[] averages(long[] values, int n, int windowSize) {
+        long[] sums = sums(values, n, windowSize);
+        double[] averages = new double[sums.length];
+        for (int i = 0; i < sums.length; i++) {
+            averages[i] = (double) sums[i] / windowSize;
+        }
+        return averages;
+    }
+
+    public static long[] minima(long[] values, int n, int windowSize) {
+        return extremes(values, n, windowSize, false);
+    }
+
+    public static long[] maxima(long[] values, int n, int windowSize) {
+        return extremes(values, n, windowSize, true);
+    }
+
+    private static long firstWindowSum(long[] values, int windowSize) {
+        long sum = 0;
+        for (int i = 0; i < windowSize; i++) {
+            sum = Math.addExact(sum, values[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Monotonic deque of indices: the front is always the window's extreme, and anything the newest value beats can
+     * never be an extreme again, so each index is pushed and popped at most once.
+     */
+    private static long[] extremes(long[] values, int n, int windowSize, boolean max) {
+        long[] out = new long[n - windowSize + 1];
+        // Ring buffer; it never holds more than windowSize indices
+        int[] deque = new int[windowSize];
+        int head = 0;
+        int size = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (size > 0 && deque[head] <= i - windowSize) {
+                head = (head + 1) % windowSize;
+                size--;
+            }
+            while (size > 0) {
+                long last = values[deque[(head + size - 1) % windowSize]];
+                if (max ? last > values[i] : last < values[i]) {
+                    break;
+                }
+                size--;
+            }
+            deque[(head + size) % windowSize] = i;
+            size++;
+
+            if (i >= windowSize - 1) {
+                out[i - windowSize + 1] = values[deque[head]];
+            }
+        }
+        return out;
+    }
+}